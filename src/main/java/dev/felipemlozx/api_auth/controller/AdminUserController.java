@@ -0,0 +1,98 @@
+package dev.felipemlozx.api_auth.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.felipemlozx.api_auth.dto.ImportSummaryDTO;
+import dev.felipemlozx.api_auth.services.UserImportService;
+import dev.felipemlozx.api_auth.services.UserListingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/admin/users")
+public class AdminUserController {
+
+  public static final String NDJSON = "application/x-ndjson";
+  public static final String CSV = "text/csv";
+
+  private final UserImportService userImportService;
+  private final UserListingService userListingService;
+  private final ObjectMapper objectMapper;
+
+  public AdminUserController(UserImportService userImportService, UserListingService userListingService,
+                             ObjectMapper objectMapper) {
+    this.userImportService = userImportService;
+    this.userListingService = userListingService;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Streams matching users as NDJSON in id order, flushing after every page so the response goes
+   * out chunked while the export runs. {@code afterId} resumes an interrupted export from the last
+   * id received; {@code limit} (0 = no limit) caps the number of users.
+   */
+  @GetMapping(produces = NDJSON)
+  public void listUsers(@RequestParam(required = false) Boolean verified,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant timeVerifyFrom,
+                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant timeVerifyTo,
+                        @RequestParam(defaultValue = "0") long afterId,
+                        @RequestParam(defaultValue = "0") long limit,
+                        HttpServletResponse response) throws IOException {
+    response.setStatus(HttpStatus.OK.value());
+    response.setContentType(NDJSON);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    PrintWriter out = response.getWriter();
+    UserListingService.Filter filter = new UserListingService.Filter(verified, timeVerifyFrom, timeVerifyTo);
+    userListingService.forEachPage(filter, afterId, limit, page -> {
+      page.forEach(user -> writeLine(out, user));
+      out.flush();
+    });
+    out.flush();
+  }
+
+  /**
+   * Streams the uploaded file (CSV with name,email,password columns, or one CreateUserDTO JSON per
+   * line) into the import and answers with NDJSON: one line per rejected row as it is found, then
+   * a last line with the totals.
+   */
+  @PostMapping(value = "/import", consumes = {CSV, NDJSON}, produces = NDJSON)
+  public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    UserImportService.Format format = request.getContentType().startsWith(CSV)
+        ? UserImportService.Format.CSV
+        : UserImportService.Format.NDJSON;
+
+    response.setStatus(HttpStatus.OK.value());
+    response.setContentType(NDJSON);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    PrintWriter out = response.getWriter();
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+      ImportSummaryDTO summary = userImportService.importUsers(reader, format, error -> writeLine(out, error));
+      writeLine(out, summary);
+    }
+    out.flush();
+  }
+
+  private void writeLine(PrintWriter out, Object value) {
+    try {
+      out.write(objectMapper.writeValueAsString(value));
+      out.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
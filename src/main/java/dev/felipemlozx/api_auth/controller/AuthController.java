@@ -5,15 +5,17 @@ import dev.felipemlozx.api_auth.core.Email;
 import dev.felipemlozx.api_auth.core.EmailCheckFailure;
 import dev.felipemlozx.api_auth.core.EmailCheckResult;
 import dev.felipemlozx.api_auth.core.EmailCheckSuccess;
+import dev.felipemlozx.api_auth.core.EmailResendThrottled;
 import dev.felipemlozx.api_auth.core.LoginFailure;
 import dev.felipemlozx.api_auth.core.LoginResult;
 import dev.felipemlozx.api_auth.core.LoginSuccess;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
 import dev.felipemlozx.api_auth.dto.ResponseLoginDTO;
+import dev.felipemlozx.api_auth.infra.security.PasswordHashingRejectedException;
 import dev.felipemlozx.api_auth.services.AuthService;
 import dev.felipemlozx.api_auth.utils.ApiResponse;
-import jakarta.mail.MessagingException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -31,7 +33,7 @@ public class AuthController {
   }
 
   @PostMapping("/register")
-  public ResponseEntity<ApiResponse<List<String>>> register(@RequestBody CreateUserDTO body) throws MessagingException {
+  public ResponseEntity<ApiResponse<List<String>>> register(@RequestBody CreateUserDTO body) {
       List<String> response = authService.register(body);
       if (response.isEmpty()){
         return ResponseEntity
@@ -67,6 +69,13 @@ public class AuthController {
         .body(ApiResponse.error("User not register.", null));
   }
 
+  @ExceptionHandler(PasswordHashingRejectedException.class)
+  public ResponseEntity<ApiResponse<Void>> hashingOverloaded(PasswordHashingRejectedException ex){
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(ApiResponse.error("Too many requests, try again later.", null));
+  }
+
   @GetMapping("/verify-email/{token}")
   public ResponseEntity<ApiResponse<Void>> verifyEmail(@PathVariable String token){
     boolean isValid = authService.verifyEmailToken(token);
@@ -94,6 +103,11 @@ public class AuthController {
     if(result instanceof EmailCheckSuccess){
       return ResponseEntity.noContent().build();
     }
+    if(result instanceof EmailResendThrottled(var retryAfter)){
+      return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+          .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000)))
+          .body(ApiResponse.error("Too many verification emails requested, try again later."));
+    }
     EmailCheckFailure failure = (EmailCheckFailure) result;
     if(failure.error().equals(Email.EMAIL_NOT_SEND)){
       return ResponseEntity.internalServerError()
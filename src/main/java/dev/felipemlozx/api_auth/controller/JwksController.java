@@ -0,0 +1,35 @@
+package dev.felipemlozx.api_auth.controller;
+
+import dev.felipemlozx.api_auth.infra.security.Jwks;
+import dev.felipemlozx.api_auth.infra.security.KeyRing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth")
+public class JwksController {
+
+  private final KeyRing keyRing;
+  private final Duration maxAge;
+
+  public JwksController(KeyRing keyRing, @Value("${api.token.jwks-max-age:6h}") Duration maxAge) {
+    this.keyRing = keyRing;
+    this.maxAge = maxAge;
+  }
+
+  @GetMapping("/.well-known/jwks.json")
+  public ResponseEntity<Map<String, Object>> jwks() {
+    Map<String, Object> keySet = Jwks.keySet(keyRing);
+    return ResponseEntity.ok()
+        .cacheControl(CacheControl.maxAge(maxAge).cachePublic())
+        .eTag(Integer.toHexString(keySet.hashCode()))
+        .body(keySet);
+  }
+}
@@ -1,5 +1,5 @@
 package dev.felipemlozx.api_auth.core;
 
-import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
 
-public record AuthCheckSuccess(User user) implements AuthCheckResult { }
\ No newline at end of file
+public record AuthCheckSuccess(UserJwtDTO user) implements AuthCheckResult { }
@@ -2,6 +2,7 @@ package dev.felipemlozx.api_auth.core;
 
 public enum Email {
   EMAIL_SEND,
+  EMAIL_ALREADY_QUEUED,
   EMAIL_NOT_SEND,
   EMAIL_NOT_SEND_CAUSE_USER_NOT_FOUND,
   USER_IS_VERIFIED,
@@ -1,4 +1,4 @@
 package dev.felipemlozx.api_auth.core;
 
-public sealed interface EmailCheckResult permits EmailCheckFailure, EmailCheckSuccess {
+public sealed interface EmailCheckResult permits EmailCheckFailure, EmailCheckSuccess, EmailResendThrottled {
 }
@@ -0,0 +1,5 @@
+package dev.felipemlozx.api_auth.core;
+
+import java.time.Duration;
+
+public record EmailResendThrottled(Duration retryAfter) implements EmailCheckResult { }
@@ -0,0 +1,5 @@
+package dev.felipemlozx.api_auth.core;
+
+import java.time.Duration;
+
+public record PurgeResult(int purged, int batches, Duration elapsed) { }
@@ -1,6 +1,12 @@
 package dev.felipemlozx.api_auth.dto;
 
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
+
 public record CreateUserDTO(String name,
                             String email,
                             String password) {
+
+  public String normalizedEmail() {
+    return EmailNormalizer.normalize(email);
+  }
 }
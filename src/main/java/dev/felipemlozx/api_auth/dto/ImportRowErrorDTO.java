@@ -0,0 +1,5 @@
+package dev.felipemlozx.api_auth.dto;
+
+import java.util.List;
+
+public record ImportRowErrorDTO(long line, String email, List<String> errors) {}
@@ -0,0 +1,3 @@
+package dev.felipemlozx.api_auth.dto;
+
+public record ImportSummaryDTO(long imported, long failed, long elapsedMs) {}
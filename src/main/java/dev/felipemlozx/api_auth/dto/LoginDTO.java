@@ -1,5 +1,11 @@
 package dev.felipemlozx.api_auth.dto;
 
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
+
 public record LoginDTO (String email,
                         String password) {
+
+  public String normalizedEmail() {
+    return EmailNormalizer.normalize(email);
+  }
 }
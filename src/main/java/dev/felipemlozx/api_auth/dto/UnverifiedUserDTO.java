@@ -0,0 +1,3 @@
+package dev.felipemlozx.api_auth.dto;
+
+public record UnverifiedUserDTO(Long id, String email) {}
@@ -0,0 +1,8 @@
+package dev.felipemlozx.api_auth.dto;
+
+public record UserCredentialsDTO(Long id, String name, String email, String password, boolean verified) {
+
+  public UserJwtDTO toJwtUser() {
+    return new UserJwtDTO(id, name, email);
+  }
+}
@@ -0,0 +1,5 @@
+package dev.felipemlozx.api_auth.dto;
+
+import java.time.Instant;
+
+public record UserSummaryDTO(Long id, String name, String email, boolean verified, Instant timeVerify) {}
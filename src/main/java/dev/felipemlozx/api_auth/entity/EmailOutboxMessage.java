@@ -0,0 +1,106 @@
+package dev.felipemlozx.api_auth.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * A verification email waiting to be sent. Rows are written in the transaction that creates the
+ * user, so an email exists if and only if the user does; the dispatcher deletes them once sent.
+ */
+@Entity
+@Table(name = "tb_email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+public class EmailOutboxMessage {
+
+  public enum Status { PENDING, DEAD }
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_email_outbox_seq")
+  @SequenceGenerator(name = "tb_email_outbox_seq", sequenceName = "tb_email_outbox_seq", allocationSize = 50)
+  private Long id;
+  private String recipient;
+  @Column(name = "recipient_name")
+  private String recipientName;
+  @Column(length = 1024)
+  private String link;
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.VARCHAR)
+  @Column(length = 16, nullable = false)
+  private Status status = Status.PENDING;
+  private int attempts;
+  @Column(name = "next_attempt_at", nullable = false)
+  private Instant nextAttemptAt;
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+  @Column(name = "last_error", length = 1000)
+  private String lastError;
+
+  public EmailOutboxMessage() {
+  }
+
+  public EmailOutboxMessage(String recipient, String recipientName, String link) {
+    this.recipient = recipient;
+    this.recipientName = recipientName;
+    this.link = link;
+  }
+
+  @PrePersist
+  protected void onCreate() {
+    createdAt = Instant.now();
+    if (nextAttemptAt == null) nextAttemptAt = createdAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getRecipient() {
+    return recipient;
+  }
+
+  public String getRecipientName() {
+    return recipientName;
+  }
+
+  public String getLink() {
+    return link;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public void setStatus(Status status) {
+    this.status = status;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public Instant getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  public void setNextAttemptAt(Instant nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+}
@@ -1,19 +1,28 @@
 package dev.felipemlozx.api_auth.entity;
 
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
 import jakarta.persistence.*;
 
+import java.time.Duration;
 import java.time.Instant;
 
 @Entity
-@Table(name = "tb_user")
+@Table(name = "tb_user", indexes = @Index(name = "idx_user_verified_time_verify", columnList = "verified, time_verify"))
 public class User {
 
+  /** How long a new user has to verify the email; verification tokens expire with it. */
+  public static final Duration VERIFICATION_WINDOW = Duration.ofMinutes(30);
+
+  // SEQUENCE (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts; ids come 50 at a time
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_user_seq")
+  @SequenceGenerator(name = "tb_user_seq", sequenceName = "tb_user_seq", allocationSize = 50)
   private Long id;
   private String name;
-  @Column(unique = true)
   private String email;
+  // lookups and uniqueness go through this column so case-insensitive matching stays an index seek
+  @Column(name = "email_normalized", nullable = false, unique = true)
+  private String emailNormalized;
   private String password;
   @Column(name = "time_verify", updatable = false)
   private Instant timeVerify;
@@ -24,15 +33,16 @@ public class User {
 
   public User(String name, String email, String password, boolean verified) {
     this.name = name;
-    this.email = email;
+    setEmail(email);
     this.password = password;
     this.verified = verified;
   }
 
   @PrePersist
   protected void onCreate() {
+    emailNormalized = EmailNormalizer.normalize(email);
     if (timeVerify == null) {
-      timeVerify = Instant.now().plusSeconds(1800);
+      timeVerify = Instant.now().plus(VERIFICATION_WINDOW);
     }
   }
 
@@ -58,6 +68,11 @@ public class User {
 
   public void setEmail(String email) {
     this.email = email;
+    this.emailNormalized = EmailNormalizer.normalize(email);
+  }
+
+  public String getEmailNormalized() {
+    return emailNormalized;
   }
 
   public String getPassword() {
@@ -0,0 +1,27 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import java.util.List;
+
+/**
+ * Bit array behind {@link EmailBloomFilter}. A rebuild fills a second generation while normal
+ * writes go to both, then swaps it in, so nothing registered during the rebuild is lost.
+ */
+public interface BloomBitStore {
+
+  /** Sets the bits in the live generation and, while a rebuild is running, in the next one. */
+  void set(long[] offsets);
+
+  /** True when every bit is set, or when the store has not been built yet and cannot answer. */
+  boolean allSet(long[] offsets);
+
+  /** Whether a full generation is in place, i.e. negative answers can be trusted. */
+  boolean isBuilt();
+
+  void beginRebuild();
+
+  void setInRebuild(List<long[]> offsets);
+
+  void finishRebuild();
+
+  long bitCount();
+}
@@ -0,0 +1,46 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+public class EmailBloomConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailBloomConfig.class);
+  // Redis bitmaps stop at 512 MB
+  private static final long MAX_REDIS_BITS = 1L << 32;
+  // v2 holds normalized emails; the bitmap filled from raw emails must not count as built
+  static final String REDIS_KEY_VERSION = "v2";
+
+  @Bean
+  public EmailBloomFilter emailBloomFilter(StringRedisTemplate redisTemplate,
+                                           @Value("${api.email-bloom.enabled:true}") boolean enabled,
+                                           @Value("${api.email-bloom.store:redis}") String store,
+                                           @Value("${api.email-bloom.expected-insertions:1000000}") long expectedInsertions,
+                                           @Value("${api.email-bloom.fpp:0.01}") double fpp,
+                                           @Value("${api.email-bloom.max-memory:64MB}") DataSize maxMemory,
+                                           @Value("${api.email-bloom.rebuild-after-removals:0.2}") double rebuildAfterRemovals) {
+    long bits = EmailBloomFilter.optimalBits(expectedInsertions, fpp, Math.min(maxMemory.toBytes() * 8, MAX_REDIS_BITS));
+    int hashFunctions = EmailBloomFilter.optimalHashFunctions(expectedInsertions, bits);
+    double expectedFpp = Math.pow(1 - Math.exp(-(double) hashFunctions * expectedInsertions / bits), hashFunctions);
+    log.info("Email bloom filter ({}): {} KiB, {} hash functions, expected fpp {} at {} emails",
+        store, bits / 8 / 1024, hashFunctions, String.format("%.4f", expectedFpp), expectedInsertions);
+
+    // a disabled filter keeps an empty local store that is never built, so it answers "maybe" to everything
+    BloomBitStore bitStore = enabled && "redis".equalsIgnoreCase(store)
+        ? new RedisBloomBitStore(redisTemplate, redisKey(bits, hashFunctions), bits)
+        : new LocalBloomBitStore(bits);
+    return new EmailBloomFilter(bitStore, bits, hashFunctions, fpp, rebuildAfterRemovals);
+  }
+
+  // the bitmap is only valid for the geometry it was built with, so a resized filter starts unbuilt;
+  // the braces are the hash tag that keeps the live and next generations in one Redis Cluster slot
+  static String redisKey(long bits, int hashFunctions) {
+    return "email-bloom:{" + REDIS_KEY_VERSION + ":" + bits + ":" + hashFunctions + "}";
+  }
+}
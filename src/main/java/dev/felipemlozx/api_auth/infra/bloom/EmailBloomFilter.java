@@ -0,0 +1,194 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bloom filter of registered emails. A negative answer means the email is certainly not in
+ * {@code tb_user}, so the lookup can be skipped; a positive answer still goes to the database.
+ *
+ * <p>Bloom filters cannot forget, so deleted users leave stale bits behind. The filter counts them
+ * and {@link #needsRebuild()} turns true once they pass the configured share of the elements.
+ *
+ * <p>An unreachable store never fails the caller: lookups answer "maybe" and fall through to the
+ * database, and an email that could not be added marks the filter for rebuild, since until then
+ * the filter could wrongly answer "absent" for it.
+ */
+public class EmailBloomFilter implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailBloomFilter.class);
+  private static final int REBUILD_BATCH = 1000;
+
+  private final BloomBitStore store;
+  private final long bits;
+  private final int hashFunctions;
+  private final double targetFpp;
+  private final double rebuildAfterRemovals;
+  private final LongAdder removedSinceBuild = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder storeErrors = new LongAdder();
+  private final AtomicBoolean missedPuts = new AtomicBoolean();
+
+  public EmailBloomFilter(BloomBitStore store, long bits, int hashFunctions, double targetFpp, double rebuildAfterRemovals) {
+    this.store = store;
+    this.bits = bits;
+    this.hashFunctions = hashFunctions;
+    this.targetFpp = targetFpp;
+    this.rebuildAfterRemovals = rebuildAfterRemovals;
+  }
+
+  /** Optimal bit count for {@code expectedInsertions} at {@code fpp}, capped at {@code maxBits}. */
+  public static long optimalBits(long expectedInsertions, double fpp, long maxBits) {
+    long optimal = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+    return Math.max(64, Math.min(optimal, maxBits));
+  }
+
+  public static int optimalHashFunctions(long expectedInsertions, long bits) {
+    return Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+  }
+
+  public boolean mightContain(String email) {
+    try {
+      if (store.allSet(offsets(email))) return true;
+    } catch (DataAccessException e) {
+      storeErrors.increment();
+      log.debug("Email bloom filter unavailable, answering maybe: {}", e.getMessage());
+      return true;
+    }
+    rejected.increment();
+    return false;
+  }
+
+  public void put(String email) {
+    try {
+      store.set(offsets(email));
+    } catch (DataAccessException e) {
+      storeErrors.increment();
+      missedPuts.set(true);
+      log.warn("Could not add an email to the bloom filter, it will be rebuilt: {}", e.getMessage());
+    }
+  }
+
+  public void recordRemovals(int count) {
+    removedSinceBuild.add(count);
+  }
+
+  public boolean needsRebuild() {
+    if (missedPuts.get() || !store.isBuilt()) return true;
+    long removed = removedSinceBuild.sum();
+    return removed > 0 && removed > estimatedElements() * rebuildAfterRemovals;
+  }
+
+  /** Replaces the filter with one built from {@code emails}; registrations meanwhile are kept. */
+  public long rebuild(Iterator<String> emails) {
+    return rebuild(sink -> sink.applyAsLong(emails));
+  }
+
+  /**
+   * Replaces the filter with one built from the emails {@code scan} reads. The next generation
+   * exists before the scan starts, so a registration committed after the scan's snapshot but
+   * before its first row is still written to it.
+   */
+  public long rebuild(EmailScan scan) {
+    // cleared up front: a put failing from here on may have missed the scan and must flag again
+    boolean missed = missedPuts.getAndSet(false);
+    try {
+      store.beginRebuild();
+      long count = scan.feed(this::fill);
+      store.finishRebuild();
+      removedSinceBuild.reset();
+      return count;
+    } catch (RuntimeException e) {
+      if (missed) missedPuts.set(true);
+      throw e;
+    }
+  }
+
+  private long fill(Iterator<String> emails) {
+    long count = 0;
+    List<long[]> batch = new ArrayList<>(REBUILD_BATCH);
+    while (emails.hasNext()) {
+      batch.add(offsets(emails.next()));
+      if (batch.size() == REBUILD_BATCH) {
+        store.setInRebuild(batch);
+        count += batch.size();
+        batch.clear();
+      }
+    }
+    if (!batch.isEmpty()) store.setInRebuild(batch);
+    count += batch.size();
+    return count;
+  }
+
+  /** Current false-positive probability given how full the bit array is, (set bits / m)^k. */
+  public double estimatedFpp() {
+    return Math.pow((double) store.bitCount() / bits, hashFunctions);
+  }
+
+  /** Swamidass and Baldi's estimate of the number of distinct elements from the set bit count. */
+  public double estimatedElements() {
+    double setRatio = (double) store.bitCount() / bits;
+    if (setRatio >= 1) return Double.POSITIVE_INFINITY;
+    return -((double) bits / hashFunctions) * Math.log(1 - setRatio);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("email.bloom.memory", this, filter -> filter.bits / 8.0)
+        .description("Size of the bit array")
+        .baseUnit("bytes")
+        .register(registry);
+    Gauge.builder("email.bloom.hash.functions", this, filter -> filter.hashFunctions).register(registry);
+    Gauge.builder("email.bloom.fpp.target", this, filter -> filter.targetFpp).register(registry);
+    Gauge.builder("email.bloom.fpp.estimated", this, EmailBloomFilter::estimatedFpp).register(registry);
+    Gauge.builder("email.bloom.elements.estimated", this, EmailBloomFilter::estimatedElements).register(registry);
+    FunctionCounter.builder("email.bloom.rejected", rejected, LongAdder::sum)
+        .description("Lookups answered as definitely absent without touching the database")
+        .register(registry);
+    FunctionCounter.builder("email.bloom.store.errors", storeErrors, LongAdder::sum)
+        .description("Lookups and inserts that failed to reach the bit store")
+        .register(registry);
+  }
+
+  /** Opens the source of registered emails and hands its iterator to {@code sink}, returning the count. */
+  @FunctionalInterface
+  public interface EmailScan {
+    long feed(ToLongFunction<Iterator<String>> sink);
+  }
+
+  long[] offsets(String email) {
+    byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+    // 64-bit FNV-1a with a SplitMix64 finalizer, split Kirsch-Mitzenmacher style into k indexes
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : bytes) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    long h1 = mix(hash);
+    long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+    long[] offsets = new long[hashFunctions];
+    for (int i = 0; i < hashFunctions; i++) {
+      offsets[i] = Math.floorMod(h1 + i * h2, bits);
+    }
+    return offsets;
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,76 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** In-process bit store; every replica keeps and rebuilds its own copy. */
+public class LocalBloomBitStore implements BloomBitStore {
+
+  private final long bits;
+  private volatile AtomicLongArray live;
+  private volatile AtomicLongArray next;
+
+  public LocalBloomBitStore(long bits) {
+    this.bits = bits;
+  }
+
+  @Override
+  public void set(long[] offsets) {
+    AtomicLongArray current = live;
+    if (current != null) setAll(current, offsets);
+    AtomicLongArray building = next;
+    if (building != null) setAll(building, offsets);
+  }
+
+  @Override
+  public boolean allSet(long[] offsets) {
+    AtomicLongArray current = live;
+    if (current == null) return true;
+    for (long offset : offsets) {
+      if ((current.get((int) (offset >>> 6)) & (1L << offset)) == 0) return false;
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isBuilt() {
+    return live != null;
+  }
+
+  @Override
+  public void beginRebuild() {
+    next = new AtomicLongArray((int) ((bits + 63) >>> 6));
+  }
+
+  @Override
+  public void setInRebuild(List<long[]> offsets) {
+    AtomicLongArray building = next;
+    for (long[] element : offsets) setAll(building, element);
+  }
+
+  @Override
+  public void finishRebuild() {
+    live = next;
+    next = null;
+  }
+
+  @Override
+  public long bitCount() {
+    AtomicLongArray current = live;
+    if (current == null) return 0;
+    long count = 0;
+    for (int i = 0; i < current.length(); i++) count += Long.bitCount(current.get(i));
+    return count;
+  }
+
+  private static void setAll(AtomicLongArray words, long[] offsets) {
+    for (long offset : offsets) {
+      int word = (int) (offset >>> 6);
+      long mask = 1L << offset;
+      long previous = words.get(word);
+      while ((previous & mask) == 0 && !words.compareAndSet(word, previous, previous | mask)) {
+        previous = words.get(word);
+      }
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bit store shared by every replica as a Redis bitmap. Writes and reads are single scripts, so a
+ * register on one replica is visible to logins on all of them right away.
+ *
+ * <p>The next generation lives at {@code key + ":next"}; on Redis Cluster {@code key} must carry a
+ * {hash tag} so both generations share the slot that SET and RENAME require.
+ */
+public class RedisBloomBitStore implements BloomBitStore {
+
+  // never creates the live key: a partial bitmap would turn into false negatives
+  private static final RedisScript<Long> SET = RedisScript.of("""
+      local live = redis.call('exists', KEYS[1]) == 1
+      local next = redis.call('exists', KEYS[2]) == 1
+      for i = 1, #ARGV do
+        if live then redis.call('setbit', KEYS[1], ARGV[i], 1) end
+        if next then redis.call('setbit', KEYS[2], ARGV[i], 1) end
+      end
+      return 1
+      """, Long.class);
+
+  private static final RedisScript<Long> ALL_SET = RedisScript.of("""
+      if redis.call('exists', KEYS[1]) == 0 then return 1 end
+      for i = 1, #ARGV do
+        if redis.call('getbit', KEYS[1], ARGV[i]) == 0 then return 0 end
+      end
+      return 1
+      """, Long.class);
+
+  private final StringRedisTemplate redis;
+  private final String key;
+  private final String nextKey;
+  private final long bits;
+
+  public RedisBloomBitStore(StringRedisTemplate redis, String key, long bits) {
+    this.redis = redis;
+    this.key = key;
+    this.nextKey = key + ":next";
+    this.bits = bits;
+  }
+
+  @Override
+  public void set(long[] offsets) {
+    redis.execute(SET, List.of(key, nextKey), toArgs(offsets));
+  }
+
+  @Override
+  public boolean allSet(long[] offsets) {
+    Long result = redis.execute(ALL_SET, List.of(key), toArgs(offsets));
+    return result == null || result == 1;
+  }
+
+  @Override
+  public boolean isBuilt() {
+    return Boolean.TRUE.equals(redis.hasKey(key));
+  }
+
+  @Override
+  public void beginRebuild() {
+    redis.delete(nextKey);
+    // allocating the last bit creates the key, which switches register writes to dual-write
+    redis.opsForValue().setBit(nextKey, bits - 1, false);
+  }
+
+  @Override
+  public void setInRebuild(List<long[]> offsets) {
+    redis.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection strings = (StringRedisConnection) connection;
+      for (long[] element : offsets) {
+        for (long offset : element) strings.setBit(nextKey, offset, true);
+      }
+      return null;
+    });
+  }
+
+  @Override
+  public void finishRebuild() {
+    redis.rename(nextKey, key);
+  }
+
+  @Override
+  public long bitCount() {
+    Long count = redis.execute((RedisCallback<Long>) connection -> connection.stringCommands().bitCount(key.getBytes(StandardCharsets.UTF_8)));
+    return count == null ? 0 : count;
+  }
+
+  private static Object[] toArgs(long[] offsets) {
+    List<String> args = new ArrayList<>(offsets.length);
+    for (long offset : offsets) args.add(Long.toString(offset));
+    return args.toArray();
+  }
+}
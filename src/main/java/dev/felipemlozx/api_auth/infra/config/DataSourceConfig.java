@@ -0,0 +1,48 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Only active when {@code api.datasource.replicas.urls} is set; without it Boot's single
+ * {@code spring.datasource} pool is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "api.datasource.replicas", name = "urls")
+public class DataSourceConfig {
+
+  @Bean
+  public ReplicaRoutingDataSource routingDataSource(DataSourceProperties properties,
+                               @Value("${api.datasource.replicas.urls}") String replicaUrls,
+                               @Value("${api.datasource.replicas.username:${spring.datasource.username:}}") String username,
+                               @Value("${api.datasource.replicas.password:${spring.datasource.password:}}") String password) {
+    DataSource primary = properties.initializeDataSourceBuilder().build();
+    List<DataSource> replicas = Arrays.stream(replicaUrls.split(","))
+        .map(String::trim)
+        .filter(url -> !url.isEmpty())
+        .map(url -> (DataSource) DataSourceBuilder.create()
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build())
+        .toList();
+    return new ReplicaRoutingDataSource(primary, replicas);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
@@ -0,0 +1,126 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Decides whether a verification email resend goes out, shared by every replica through Redis.
+ *
+ * <p>A resend within {@code dedupWindow} of the previous one for the same address is coalesced into
+ * it (the email already queued carries the same live token). Otherwise it counts against a
+ * fixed-window limit per address and a global one; over either limit it is refused with the time
+ * left in that window.
+ *
+ * <p>The per-address keys share the address as their hash tag and are decided in one script, so
+ * concurrent clicks cannot both pass; the global counter lives in another Redis Cluster slot and is
+ * taken by a second script. A resend refused there hands its per-address reservation back.
+ */
+public class EmailResendLimiter implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailResendLimiter.class);
+
+  // returns {decision, millis until it changes}; counters get their TTL on the first hit of a window
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> ACQUIRE_RECIPIENT = RedisScript.of("""
+      if redis.call('exists', KEYS[1]) == 1 then return {1, redis.call('pttl', KEYS[1])} end
+      if tonumber(redis.call('get', KEYS[2]) or '0') >= tonumber(ARGV[2]) then
+        return {2, redis.call('pttl', KEYS[2])}
+      end
+      redis.call('set', KEYS[1], '1', 'PX', ARGV[1])
+      if redis.call('incr', KEYS[2]) == 1 then redis.call('pexpire', KEYS[2], ARGV[3]) end
+      return {0, 0}
+      """, List.class);
+
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> ACQUIRE_GLOBAL = RedisScript.of("""
+      if tonumber(redis.call('get', KEYS[1]) or '0') >= tonumber(ARGV[1]) then
+        return {3, redis.call('pttl', KEYS[1])}
+      end
+      if redis.call('incr', KEYS[1]) == 1 then redis.call('pexpire', KEYS[1], ARGV[2]) end
+      return {0, 0}
+      """, List.class);
+
+  private static final RedisScript<Long> RELEASE_RECIPIENT = RedisScript.of("""
+      redis.call('del', KEYS[1])
+      if tonumber(redis.call('get', KEYS[2]) or '0') > 0 then redis.call('decr', KEYS[2]) end
+      return 1
+      """, Long.class);
+
+  static final String GLOBAL_KEY = "email:resend:count:global";
+
+  public enum Outcome { SEND, COALESCED, RECIPIENT_LIMITED, GLOBAL_LIMITED }
+
+  public record Decision(Outcome outcome, Duration retryAfter) { }
+
+  private final StringRedisTemplate redis;
+  private final Duration dedupWindow;
+  private final int recipientLimit;
+  private final Duration recipientPeriod;
+  private final int globalLimit;
+  private final Duration globalPeriod;
+
+  private volatile MeterRegistry registry;
+
+  public EmailResendLimiter(StringRedisTemplate redis, Duration dedupWindow, int recipientLimit,
+                            Duration recipientPeriod, int globalLimit, Duration globalPeriod) {
+    this.redis = redis;
+    this.dedupWindow = dedupWindow;
+    this.recipientLimit = recipientLimit;
+    this.recipientPeriod = recipientPeriod;
+    this.globalLimit = globalLimit;
+    this.globalPeriod = globalPeriod;
+  }
+
+  /** Records a resend to {@code email} (normalized) if it may go out now. */
+  public Decision acquire(String email) {
+    Decision decision;
+    try {
+      List<String> recipientKeys = List.of(dedupKey(email), countKey(email));
+      decision = decide(redis.execute(ACQUIRE_RECIPIENT, recipientKeys, Long.toString(dedupWindow.toMillis()),
+          Integer.toString(recipientLimit), Long.toString(recipientPeriod.toMillis())));
+      if (decision.outcome() == Outcome.SEND) {
+        decision = decide(redis.execute(ACQUIRE_GLOBAL, List.of(GLOBAL_KEY),
+            Integer.toString(globalLimit), Long.toString(globalPeriod.toMillis())));
+        if (decision.outcome() != Outcome.SEND) redis.execute(RELEASE_RECIPIENT, recipientKeys);
+      }
+    } catch (DataAccessException e) {
+      // the token itself lives in Redis too, so this only decides who sees the error first
+      log.warn("Resend limiter unavailable, letting the resend to {} through: {}", email, e.getMessage());
+      decision = new Decision(Outcome.SEND, Duration.ZERO);
+    }
+    MeterRegistry meters = registry;
+    if (meters != null) {
+      Counter.builder("email.resend").tag("outcome", decision.outcome().name().toLowerCase(Locale.ROOT))
+          .register(meters).increment();
+    }
+    return decision;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  static String dedupKey(String email) {
+    return "email:resend:{" + email + "}:dedup";
+  }
+
+  static String countKey(String email) {
+    return "email:resend:{" + email + "}:count";
+  }
+
+  private static Decision decide(List<?> result) {
+    Outcome outcome = Outcome.values()[((Number) result.get(0)).intValue()];
+    return new Decision(outcome, Duration.ofMillis(Math.max(0, ((Number) result.get(1)).longValue())));
+  }
+}
@@ -0,0 +1,47 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Properties;
+
+/**
+ * Replaces Boot's one-connection-per-send {@code JavaMailSender} with {@link PooledJavaMailSender},
+ * configured from the same {@code spring.mail.*} properties. {@code api.mail.pool.enabled=false}
+ * falls back to Boot's sender.
+ */
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+@ConditionalOnProperty(name = "api.mail.pool.enabled", matchIfMissing = true)
+public class MailConfig {
+
+  @Bean(destroyMethod = "shutdown")
+  public PooledJavaMailSender mailSender(MailProperties properties,
+                                         @Value("${api.mail.pool.max-connections:4}") int maxConnections,
+                                         @Value("${api.mail.pool.max-wait:30s}") Duration maxWait,
+                                         @Value("${api.mail.pool.idle-timeout:2m}") Duration idleTimeout,
+                                         @Value("${api.mail.pool.validate-after-idle:10s}") Duration validateAfterIdle) {
+    PooledJavaMailSender sender = new PooledJavaMailSender(maxConnections, maxWait, idleTimeout, validateAfterIdle);
+    sender.setHost(properties.getHost());
+    if (properties.getPort() != null) {
+      sender.setPort(properties.getPort());
+    }
+    sender.setUsername(properties.getUsername());
+    sender.setPassword(properties.getPassword());
+    sender.setProtocol(properties.getProtocol());
+    if (properties.getDefaultEncoding() != null) {
+      sender.setDefaultEncoding(properties.getDefaultEncoding().name());
+    }
+    if (!properties.getProperties().isEmpty()) {
+      Properties javaMailProperties = new Properties();
+      javaMailProperties.putAll(properties.getProperties());
+      sender.setJavaMailProperties(javaMailProperties);
+    }
+    return sender;
+  }
+}
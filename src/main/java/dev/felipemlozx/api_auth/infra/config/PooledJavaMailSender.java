@@ -0,0 +1,264 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps connected, authenticated SMTP transports open between sends
+ * instead of paying the TCP + STARTTLS + AUTH round trips for every batch. A send borrows one
+ * connection for the whole batch and hands it back afterwards; at most {@code maxConnections} are
+ * open at once and callers beyond that wait up to {@code maxWait}.
+ *
+ * <p>Connections idle for longer than {@code idleTimeout} are closed by a background evictor (SMTP
+ * servers drop idle clients after a few minutes anyway). One that has been idle for more than
+ * {@code validateAfterIdle} is checked with a NOOP when borrowed. A connection that still turns out
+ * to be dead mid-batch is replaced and the message retried once on the fresh one, so a server restart
+ * does not fail messages.
+ */
+public class PooledJavaMailSender extends JavaMailSenderImpl implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(PooledJavaMailSender.class);
+  private static final String HEADER_MESSAGE_ID = "Message-ID";
+
+  private final int maxConnections;
+  private final Duration maxWait;
+  private final Duration idleTimeout;
+  private final Duration validateAfterIdle;
+
+  private final Semaphore permits;
+  // most recently returned first, so bursts reuse the warmest connections and the rest age out
+  private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+  private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "smtp-pool-evictor");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final LongAdder opened = new LongAdder();
+  private volatile boolean closed;
+
+  public PooledJavaMailSender(int maxConnections, Duration maxWait, Duration idleTimeout, Duration validateAfterIdle) {
+    if (maxConnections < 1) throw new IllegalArgumentException("maxConnections must be at least 1");
+    this.maxConnections = maxConnections;
+    this.maxWait = maxWait;
+    this.idleTimeout = idleTimeout;
+    this.validateAfterIdle = validateAfterIdle;
+    this.permits = new Semaphore(maxConnections, true);
+    long period = Math.max(idleTimeout.toMillis() / 2, 50);
+    evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  private record PooledTransport(Transport transport, long idleSince) { }
+
+  @Override
+  protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+    Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+    acquirePermit(mimeMessages, originalMessages, failedMessages);
+    Transport transport = null;
+    try {
+      // set once the connection came from the pool or has carried a message: if it then turns out to be
+      // closed, the server dropped it in between and one reconnect is worth it
+      boolean reconnectOnDrop = false;
+      for (int i = 0; i < mimeMessages.length; i++) {
+        Object original = originalMessages != null ? originalMessages[i] : mimeMessages[i];
+        MimeMessage mimeMessage = mimeMessages[i];
+        if (transport == null) {
+          transport = borrowIdle();
+          reconnectOnDrop = transport != null;
+          if (transport == null) transport = connect(mimeMessages, originalMessages, i, failedMessages);
+        }
+
+        Exception failure;
+        try {
+          prepare(mimeMessage);
+          failure = trySend(transport, mimeMessage);
+        } catch (MessagingException ex) {
+          failedMessages.put(original, ex);
+          continue;
+        }
+        if (failure != null && reconnectOnDrop && !isConnected(transport)) {
+          log.debug("SMTP connection was closed by the server, reconnecting: {}", failure.getMessage());
+          discard(transport);
+          transport = null; // a failed connect must not hand the closed one back to the pool
+          transport = connect(mimeMessages, originalMessages, i, failedMessages);
+          failure = trySend(transport, mimeMessage);
+        }
+        if (failure == null) {
+          reconnectOnDrop = true;
+          continue;
+        }
+        failedMessages.put(original, failure);
+        if (!isConnected(transport)) {
+          discard(transport);
+          transport = null;
+        }
+      }
+    } finally {
+      if (transport != null) release(transport);
+      permits.release();
+    }
+    if (!failedMessages.isEmpty()) throw new MailSendException(failedMessages);
+  }
+
+  private void acquirePermit(MimeMessage[] mimeMessages, Object[] originalMessages,
+                             Map<Object, Exception> failedMessages) {
+    try {
+      if (permits.tryAcquire(maxWait.toMillis(), TimeUnit.MILLISECONDS)) return;
+      failAll(mimeMessages, originalMessages, 0, failedMessages,
+          new IllegalStateException("No SMTP connection free after " + maxWait));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failAll(mimeMessages, originalMessages, 0, failedMessages, e);
+    }
+    throw new MailSendException("SMTP connection pool exhausted", null, failedMessages);
+  }
+
+  /** Opens a connection; when that fails every message from {@code from} on is failed. */
+  private Transport connect(MimeMessage[] mimeMessages, Object[] originalMessages, int from,
+                            Map<Object, Exception> failedMessages) {
+    try {
+      Transport transport = connectTransport();
+      opened.increment();
+      return transport;
+    } catch (AuthenticationFailedException ex) {
+      throw new MailAuthenticationException(ex);
+    } catch (Exception ex) {
+      failAll(mimeMessages, originalMessages, from, failedMessages, ex);
+      throw new MailSendException("Mail server connection failed", ex, failedMessages);
+    }
+  }
+
+  private static void failAll(MimeMessage[] mimeMessages, Object[] originalMessages, int from,
+                              Map<Object, Exception> failedMessages, Exception cause) {
+    for (int j = from; j < mimeMessages.length; j++) {
+      failedMessages.put(originalMessages != null ? originalMessages[j] : mimeMessages[j], cause);
+    }
+  }
+
+  // what JavaMailSenderImpl does before each send
+  private static void prepare(MimeMessage mimeMessage) throws MessagingException {
+    if (mimeMessage.getSentDate() == null) {
+      mimeMessage.setSentDate(new Date());
+    }
+    String messageId = mimeMessage.getMessageID();
+    mimeMessage.saveChanges();
+    if (messageId != null) {
+      mimeMessage.setHeader(HEADER_MESSAGE_ID, messageId);
+    }
+  }
+
+  private static MessagingException trySend(Transport transport, MimeMessage mimeMessage) {
+    try {
+      Address[] addresses = mimeMessage.getAllRecipients();
+      transport.sendMessage(mimeMessage, addresses != null ? addresses : new Address[0]);
+      return null;
+    } catch (MessagingException ex) {
+      return ex;
+    }
+  }
+
+  private Transport borrowIdle() {
+    PooledTransport pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      long idleMillis = System.currentTimeMillis() - pooled.idleSince();
+      if (idleMillis >= idleTimeout.toMillis()) {
+        discard(pooled.transport());
+      } else if (idleMillis >= validateAfterIdle.toMillis() && !isConnected(pooled.transport())) {
+        discard(pooled.transport());
+      } else {
+        return pooled.transport();
+      }
+    }
+    return null;
+  }
+
+  private void release(Transport transport) {
+    // no liveness check here: that is another round trip, and borrowIdle validates stale ones
+    if (closed) {
+      discard(transport);
+      return;
+    }
+    idle.offerFirst(new PooledTransport(transport, System.currentTimeMillis()));
+  }
+
+  void evictIdle() {
+    long now = System.currentTimeMillis();
+    Iterator<PooledTransport> oldestFirst = idle.descendingIterator();
+    while (oldestFirst.hasNext()) {
+      PooledTransport pooled = oldestFirst.next();
+      if (now - pooled.idleSince() < idleTimeout.toMillis()) break;
+      if (idle.removeFirstOccurrence(pooled)) discard(pooled.transport());
+    }
+  }
+
+  /** For SMTP this sends a NOOP, so it is only used where a round trip is acceptable. */
+  private static boolean isConnected(Transport transport) {
+    try {
+      return transport.isConnected();
+    } catch (RuntimeException ex) {
+      return false;
+    }
+  }
+
+  private static void discard(Transport transport) {
+    try {
+      transport.close();
+    } catch (MessagingException | RuntimeException ex) {
+      log.debug("Ignoring error closing SMTP connection: {}", ex.getMessage());
+    }
+  }
+
+  int idleConnections() {
+    return idle.size();
+  }
+
+  long openedConnections() {
+    return opened.sum();
+  }
+
+  public void shutdown() {
+    closed = true;
+    evictor.shutdownNow();
+    PooledTransport pooled;
+    while ((pooled = idle.pollFirst()) != null) {
+      discard(pooled.transport());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("mail.smtp.pool.idle", idle, Deque::size)
+        .description("Open SMTP connections waiting in the pool")
+        .register(registry);
+    Gauge.builder("mail.smtp.pool.active", this, sender -> sender.maxConnections - sender.permits.availablePermits())
+        .description("SMTP connections currently sending a batch")
+        .register(registry);
+    FunctionCounter.builder("mail.smtp.pool.opened", opened, LongAdder::sum)
+        .description("SMTP connections opened (connect, STARTTLS, AUTH)")
+        .register(registry);
+  }
+}
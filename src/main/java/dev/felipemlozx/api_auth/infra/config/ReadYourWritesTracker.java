@@ -0,0 +1,87 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Remembers keys (emails) written in the last replica-lag window and reads them from the primary
+ * meanwhile, so a user sees their own sign-up or verification right away.
+ *
+ * <p>With replicas configured the marker is a Redis key expiring with the window, so a login that
+ * lands on another node than the sign-up still reads the primary; writes made on this node are also
+ * kept in process to skip that round trip. When Redis cannot be asked the read goes to the primary.
+ * Without replicas every read is on the primary anyway and nothing leaves the process.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+  private static final Logger log = LoggerFactory.getLogger(ReadYourWritesTracker.class);
+  static final String KEY_PREFIX = "read-your-writes:";
+
+  private final Map<String, Long> recentWrites = new ConcurrentHashMap<>();
+  private final StringRedisTemplate redis;
+  private final Duration window;
+  private final Clock clock;
+
+  @Autowired
+  public ReadYourWritesTracker(StringRedisTemplate redis,
+                               @Value("${api.datasource.replicas.urls:}") String replicaUrls,
+                               @Value("${api.datasource.replicas.read-your-writes-window:5s}") Duration window) {
+    this(replicaUrls.isBlank() ? null : redis, window, Clock.systemUTC());
+  }
+
+  /** Single node: markers are only kept in process. */
+  public ReadYourWritesTracker(Duration window) {
+    this(null, window, Clock.systemUTC());
+  }
+
+  ReadYourWritesTracker(StringRedisTemplate redis, Duration window, Clock clock) {
+    this.redis = redis;
+    this.window = window;
+    this.clock = clock;
+  }
+
+  public void markWritten(String key) {
+    long now = clock.millis();
+    recentWrites.put(key, now + window.toMillis());
+    // cheap sweep so the map only ever holds keys from the last window
+    if (recentWrites.size() > 1024) recentWrites.values().removeIf(expiresAt -> expiresAt <= now);
+    if (redis == null) return;
+    try {
+      redis.opsForValue().set(KEY_PREFIX + key, "1", window);
+    } catch (DataAccessException e) {
+      log.warn("Could not share the read-your-writes marker for {}: {}", key, e.getMessage());
+    }
+  }
+
+  public <T> T read(String key, Supplier<T> query) {
+    return writtenRecently(key) ? ReplicaRoutingDataSource.onPrimary(query) : query.get();
+  }
+
+  /** Whether {@code key} was written within the window, here or on another node. */
+  public boolean writtenRecently(String key) {
+    Long expiresAt = recentWrites.get(key);
+    if (expiresAt != null) {
+      if (expiresAt > clock.millis()) return true;
+      recentWrites.remove(key, expiresAt);
+    }
+    if (redis == null) return false;
+    try {
+      return Boolean.TRUE.equals(redis.hasKey(KEY_PREFIX + key));
+    } catch (DataAccessException e) {
+      log.debug("Read-your-writes marker unavailable, reading {} from the primary: {}", key, e.getMessage());
+      return true;
+    }
+  }
+}
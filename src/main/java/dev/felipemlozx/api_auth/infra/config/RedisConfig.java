@@ -1,16 +1,20 @@
 package dev.felipemlozx.api_auth.infra.config;
 
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
 
 @Configuration
 public class RedisConfig {
@@ -23,14 +27,60 @@ public class RedisConfig {
             RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.json())
         );
 
-    Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-    cacheConfigurations.put("EmailVerificationTokens", defaultConfig);
-
     return RedisCacheManager.builder(connectionFactory)
         .cacheDefaults(defaultConfig)
-        .withInitialCacheConfigurations(cacheConfigurations)
         .build();
   }
 
+  @Bean
+  public RedisTemplate<String, UserJwtDTO> userSnapshotRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                                     @Value("${api.cache.user-snapshot.value-format:binary}") CacheValueFormat format) {
+    RedisTemplate<String, UserJwtDTO> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(RedisSerializer.string());
+    template.setValueSerializer(format.serializer(UserJwtDTO.class));
+    return template;
+  }
+
+  @Bean
+  public UserSnapshotCache userSnapshotCache(RedisTemplate<String, UserJwtDTO> userSnapshotRedisTemplate,
+                                             StringRedisTemplate redisTemplate,
+                                             @Value("${api.cache.user-snapshot.ttl:1h}") Duration ttl,
+                                             @Value("${api.cache.user-snapshot.local-max-entries:10000}") int localMaxEntries,
+                                             @Value("${api.cache.user-snapshot.local-ttl:5m}") Duration localTtl) {
+    return new UserSnapshotCache(userSnapshotRedisTemplate, redisTemplate, ttl, localMaxEntries, localTtl);
+  }
+
+  @Bean
+  public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                     UserSnapshotCache userSnapshotCache) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(userSnapshotCache, new ChannelTopic(UserSnapshotCache.CHANNEL));
+    return container;
+  }
+
+  @Bean
+  public VerificationTokenStore verificationTokenStore(StringRedisTemplate redisTemplate,
+                                                       @Value("${api.email.verification.tag-secret:${api.secret.key}}") String tagSecret) {
+    return new VerificationTokenStore(redisTemplate, tagSecret);
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public RedisJobLease redisJobLease(StringRedisTemplate redisTemplate,
+                                     @Value("${api.scheduling.lease-ttl:2m}") Duration leaseTtl) {
+    return new RedisJobLease(redisTemplate, leaseTtl);
+  }
+
+  @Bean
+  public EmailResendLimiter emailResendLimiter(StringRedisTemplate redisTemplate,
+                                               @Value("${api.email.resend.dedup-window:1m}") Duration dedupWindow,
+                                               @Value("${api.email.resend.per-recipient-limit:5}") int recipientLimit,
+                                               @Value("${api.email.resend.per-recipient-period:1h}") Duration recipientPeriod,
+                                               @Value("${api.email.resend.global-limit:600}") int globalLimit,
+                                               @Value("${api.email.resend.global-period:1m}") Duration globalPeriod) {
+    return new EmailResendLimiter(redisTemplate, dedupWindow, recipientLimit, recipientPeriod, globalLimit, globalPeriod);
+  }
+
 }
 
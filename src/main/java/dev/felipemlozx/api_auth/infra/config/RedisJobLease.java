@@ -0,0 +1,87 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets one replica at a time run a scheduled job, and only once per interval.
+ *
+ * <p>A node takes {@code job:{name}:lease} with {@code SET NX PX} and a watchdog keeps extending it
+ * while the job runs. A node that dies mid-run stops renewing, so the lease expires and the next
+ * node that polls picks the job up. After a successful run {@code job:{name}:done} is written with
+ * the job interval as TTL, which keeps every node idle until the next interval.
+ */
+public class RedisJobLease {
+
+  private static final Logger log = LoggerFactory.getLogger(RedisJobLease.class);
+
+  private static final RedisScript<Long> RELEASE = RedisScript.of(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+  private static final RedisScript<Long> RENEW = RedisScript.of(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+  private final StringRedisTemplate redis;
+  private final Duration leaseTtl;
+  private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+  private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "job-lease-watchdog");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  public RedisJobLease(StringRedisTemplate redis, Duration leaseTtl) {
+    this.redis = redis;
+    this.leaseTtl = leaseTtl;
+  }
+
+  /**
+   * Runs {@code task} if no node has completed {@code job} within the last {@code interval} and no
+   * other node holds its lease. Returns whether the task ran on this node.
+   */
+  public boolean runIfDue(String job, Duration interval, Runnable task) {
+    String doneKey = "job:" + job + ":done";
+    String leaseKey = "job:" + job + ":lease";
+    if (Boolean.TRUE.equals(redis.hasKey(doneKey))) return false;
+
+    String owner = nodeId + ":" + UUID.randomUUID();
+    if (!Boolean.TRUE.equals(redis.opsForValue().setIfAbsent(leaseKey, owner, leaseTtl))) return false;
+
+    long renewEvery = Math.max(1, leaseTtl.toMillis() / 3);
+    ScheduledFuture<?> renewal = watchdog.scheduleAtFixedRate(() -> renew(leaseKey, owner),
+        renewEvery, renewEvery, TimeUnit.MILLISECONDS);
+    try {
+      // another node may have finished between the done check and taking the lease
+      if (Boolean.TRUE.equals(redis.hasKey(doneKey))) return false;
+      task.run();
+      redis.opsForValue().set(doneKey, owner, interval);
+      return true;
+    } finally {
+      renewal.cancel(false);
+      redis.execute(RELEASE, List.of(leaseKey), owner);
+    }
+  }
+
+  private void renew(String leaseKey, String owner) {
+    try {
+      Long renewed = redis.execute(RENEW, List.of(leaseKey), owner, String.valueOf(leaseTtl.toMillis()));
+      if (renewed == null || renewed == 0) log.warn("Lost lease {} held by {}", leaseKey, owner);
+    } catch (RuntimeException e) {
+      log.warn("Could not renew lease {}", leaseKey, e);
+    }
+  }
+
+  public void shutdown() {
+    watchdog.shutdownNow();
+  }
+}
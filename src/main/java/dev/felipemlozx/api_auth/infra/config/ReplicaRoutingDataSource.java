@@ -0,0 +1,66 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ *
+ * <p>The lookup runs when the connection is first used, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}; otherwise the
+ * transaction manager fetches the connection before the read-only flag is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  static final String PRIMARY = "primary";
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+  private final int replicaCount;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(PRIMARY, primary);
+    for (int i = 0; i < replicas.size(); i++) {
+      targets.put("replica-" + i, replicas.get(i));
+    }
+    this.replicaCount = replicas.size();
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    afterPropertiesSet();
+  }
+
+  /** Runs {@code work} against the primary even inside read-only transactions. */
+  public static <T> T onPrimary(Supplier<T> work) {
+    boolean previous = PINNED_TO_PRIMARY.get();
+    PINNED_TO_PRIMARY.set(true);
+    try {
+      return work.get();
+    } finally {
+      PINNED_TO_PRIMARY.set(previous);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    for (DataSource target : getResolvedDataSources().values()) {
+      if (target instanceof AutoCloseable closeable) closeable.close();
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (replicaCount == 0 || PINNED_TO_PRIMARY.get()
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return PRIMARY;
+    }
+    return "replica-" + Math.floorMod(next.getAndIncrement(), replicaCount);
+  }
+}
@@ -0,0 +1,27 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode is Spring Boot's {@code spring.threads.virtual.enabled}: Tomcat runs each
+ * request on its own virtual thread. BCrypt stays on the bounded PasswordHashingExecutor either
+ * way, so a login storm still cannot occupy every carrier thread.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ThreadingConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "shutdown")
+  @ConditionalOnProperty(name = "api.threads.pinning-monitor.enabled", matchIfMissing = true)
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+      @Value("${api.threads.pinning-monitor.threshold:20ms}") Duration threshold) {
+    return new VirtualThreadPinningMonitor(threshold);
+  }
+}
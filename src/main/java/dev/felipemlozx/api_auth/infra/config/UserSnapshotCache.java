@@ -0,0 +1,159 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Two-level cache of the (id, name, email) snapshot used to mint access tokens on refresh.
+ *
+ * <p>Caffeine holds snapshots in process and Redis shares them between replicas. Every user has a
+ * version counter in Redis: invalidation bumps it, and a snapshot loaded from the DB is only
+ * written back if the counter still holds the value read before the load, so a load racing an
+ * update or delete cannot resurrect stale data. Invalidations are published on {@link #CHANNEL} so
+ * every replica drops its local copy.
+ */
+public class UserSnapshotCache implements MessageListener, MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(UserSnapshotCache.class);
+
+  public static final String CHANNEL = "user-snapshot-invalidation";
+
+  private static final RedisScript<Long> SET_IF_VERSION = RedisScript.of("""
+      if (redis.call('get', KEYS[1]) or '0') == ARGV[1] then
+        redis.call('set', KEYS[2], ARGV[2], 'PX', ARGV[3])
+        return 1
+      end
+      return 0
+      """, Long.class);
+
+  private static final RedisSerializer<Long> LONG_RESULT = new GenericToStringSerializer<>(Long.class);
+
+  private final RedisTemplate<String, UserJwtDTO> snapshots;
+  private final StringRedisTemplate redis;
+  private final Duration ttl;
+  private final Cache<Long, UserJwtDTO> local;
+
+  public UserSnapshotCache(RedisTemplate<String, UserJwtDTO> snapshots, StringRedisTemplate redis, Duration ttl,
+                           int localMaxEntries, Duration localTtl) {
+    this.snapshots = snapshots;
+    this.redis = redis;
+    this.ttl = ttl;
+    this.local = Caffeine.newBuilder()
+        .maximumSize(localMaxEntries)
+        .expireAfterWrite(localTtl)
+        .recordStats()
+        .build();
+  }
+
+  public Optional<UserJwtDTO> get(Long id, Function<Long, Optional<UserJwtDTO>> loader) {
+    UserJwtDTO cached = local.getIfPresent(id);
+    if (cached != null) return Optional.of(cached);
+
+    String version = null;
+    try {
+      cached = readShared(id);
+      if (cached != null) {
+        local.put(id, cached);
+        return Optional.of(cached);
+      }
+      version = Optional.ofNullable(redis.opsForValue().get(versionKey(id))).orElse("0");
+    } catch (DataAccessException e) {
+      log.warn("User snapshot cache unavailable, reading user {} from the database: {}", id, e.getMessage());
+    }
+
+    // outside the try: a database failure belongs to the caller and must not be retried here
+    Optional<UserJwtDTO> loaded = loader.apply(id);
+    if (version != null && loaded.isPresent()) {
+      try {
+        writeIfCurrent(loaded.get(), version);
+      } catch (DataAccessException e) {
+        log.warn("Could not cache the snapshot of user {}: {}", id, e.getMessage());
+      }
+    }
+    return loaded;
+  }
+
+  public void invalidate(Long id) {
+    invalidateAll(List.of(id));
+  }
+
+  public void invalidateAll(Collection<Long> ids) {
+    if (ids.isEmpty()) return;
+    local.invalidateAll(ids);
+    redis.executePipelined((RedisCallback<Object>) connection -> {
+      StringRedisConnection strings = (StringRedisConnection) connection;
+      for (Long id : ids) {
+        strings.incr(versionKey(id));
+        strings.del(snapshotKey(id));
+      }
+      strings.publish(CHANNEL, ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+      return null;
+    });
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    local.invalidateAll(Arrays.stream(body.split(",")).map(Long::valueOf).toList());
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, local, "user.snapshot.local");
+  }
+
+  private UserJwtDTO readShared(Long id) {
+    try {
+      return snapshots.opsForValue().get(snapshotKey(id));
+    } catch (SerializationException e) {
+      // written in the other value-format; a miss, and the reload overwrites it
+      return null;
+    }
+  }
+
+  private void writeIfCurrent(UserJwtDTO user, String version) {
+    @SuppressWarnings("unchecked")
+    RedisSerializer<UserJwtDTO> valueSerializer = (RedisSerializer<UserJwtDTO>) snapshots.getValueSerializer();
+    Long written = redis.execute(SET_IF_VERSION, RedisSerializer.byteArray(), LONG_RESULT,
+        List.of(versionKey(user.id()), snapshotKey(user.id())),
+        version.getBytes(StandardCharsets.UTF_8), valueSerializer.serialize(user),
+        String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.UTF_8));
+    // only cache locally what is also the shared truth; a lost race means an invalidation is in flight
+    if (written != null && written == 1) local.put(user.id(), user);
+  }
+
+  // the id is the hash tag, so SET_IF_VERSION's two keys share a Redis Cluster slot
+  private static String snapshotKey(Long id) {
+    return "user:snapshot:{" + id + "}";
+  }
+
+  private static String versionKey(Long id) {
+    return "user:snapshot:{" + id + "}:version";
+  }
+}
@@ -0,0 +1,148 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Email verification tokens in Redis, in both directions: {@code email-verification:{tag}:token:<token>}
+ * holds the email and {@code email-verification:{tag}:email:<email>} the live token, both expiring
+ * when the user's verification window closes.
+ *
+ * <p>Every write is one script, so both keys always change together: issuing hands back the live
+ * token when there is one (at most one token per user exists), consuming deletes the token
+ * atomically so it works once, and revoking removes a user's token through the reverse key without
+ * scanning.
+ *
+ * <p>Scripts only touch keys passed in KEYS, as Redis Cluster and proxies require. The tag is an
+ * HMAC of the email under a server secret and also prefixes the token, so both keys of a pair share
+ * a slot and can be named from either side, while a link cannot be checked against a guessed email. Each key name depends on the other key's value, so the caller reads that
+ * value first. The script then applies the change only if the value has not changed since the read.
+ */
+public class VerificationTokenStore {
+
+  static final String KEY_PREFIX = "email-verification:";
+  private static final int TAG_LENGTH = 8;
+  // attempts at issuing while the live token keeps changing under us
+  private static final int MAX_ATTEMPTS = 5;
+
+  // KEYS: email key, token key of the live token the caller read (or the new one), new token key
+  private static final RedisScript<String> ISSUE = RedisScript.of("""
+      local current = redis.call('get', KEYS[1])
+      if (current or '') ~= ARGV[1] then return false end
+      if current and redis.call('get', KEYS[2]) == ARGV[2] then return current end
+      redis.call('set', KEYS[3], ARGV[2], 'PX', ARGV[4])
+      redis.call('set', KEYS[1], ARGV[3], 'PX', ARGV[4])
+      return ARGV[3]
+      """, String.class);
+
+  // KEYS: token key, email key of the email the caller read from it. GETDEL only exists from Redis 6.2
+  private static final RedisScript<Long> CONSUME = RedisScript.of("""
+      if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end
+      redis.call('del', KEYS[1])
+      if redis.call('get', KEYS[2]) == ARGV[2] then redis.call('del', KEYS[2]) end
+      return 1
+      """, Long.class);
+
+  // KEYS: email key, token key of the token the caller read from it
+  private static final RedisScript<Long> REVOKE = RedisScript.of("""
+      if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end
+      redis.call('del', KEYS[1], KEYS[2])
+      return 1
+      """, Long.class);
+
+  private final StringRedisTemplate redis;
+  private final SecretKeySpec tagKey;
+
+  public VerificationTokenStore(StringRedisTemplate redis, String tagSecret) {
+    this.redis = redis;
+    this.tagKey = new SecretKeySpec(tagSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+  }
+
+  /**
+   * Returns the live token for {@code email}, or stores a new one valid for {@code ttl}. A resend
+   * therefore links to the same token as the first email.
+   */
+  public String issue(String email, Duration ttl) {
+    if (ttl.isNegative() || ttl.isZero()) {
+      throw new IllegalArgumentException("Verification window for " + email + " is already closed");
+    }
+    String emailKey = emailKey(email);
+    String token = tag(email) + "-" + UUID.randomUUID();
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+      String current = redis.opsForValue().get(emailKey);
+      String issued = redis.execute(ISSUE, List.of(emailKey, tokenKey(current != null ? current : token), tokenKey(token)),
+          current != null ? current : "", email, token, Long.toString(ttl.toMillis()));
+      // null: the live token changed between the read and the script
+      if (issued != null) return issued;
+      LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(Duration.ofMillis(10L * attempt).toNanos()));
+    }
+    throw new ConcurrencyFailureException("Verification token for " + email + " kept changing, gave up after "
+        + MAX_ATTEMPTS + " attempts");
+  }
+
+  /** Removes {@code token} and returns its email, or null if it does not exist (anymore). */
+  public String consume(String token) {
+    if (token == null || token.length() <= TAG_LENGTH) return null;
+    String tokenKey = tokenKey(token);
+    String email = redis.opsForValue().get(tokenKey);
+    if (email == null) return null;
+    Long consumed = redis.execute(CONSUME, List.of(tokenKey, emailKey(email)), email, token);
+    return consumed != null && consumed == 1 ? email : null;
+  }
+
+  /** Removes the tokens of these emails; returns how many there were. */
+  public long revokeAll(Collection<String> emails) {
+    if (emails.isEmpty()) return 0;
+    List<String> emailKeys = emails.stream().map(this::emailKey).toList();
+    List<String> tokens = redis.opsForValue().multiGet(emailKeys);
+    long revoked = 0;
+    for (int i = 0; i < emailKeys.size(); i++) {
+      String token = tokens == null ? null : tokens.get(i);
+      for (int attempt = 1; token != null; attempt++) {
+        if (attempt > MAX_ATTEMPTS) {
+          throw new ConcurrencyFailureException("Verification token for " + emailKeys.get(i)
+              + " kept changing, gave up after " + MAX_ATTEMPTS + " attempts");
+        }
+        Long deleted = redis.execute(REVOKE, List.of(emailKeys.get(i), tokenKey(token)), token);
+        if (deleted != null && deleted == 1) {
+          revoked++;
+          break;
+        }
+        // reissued meanwhile: revoke the new token instead
+        token = redis.opsForValue().get(emailKeys.get(i));
+      }
+    }
+    return revoked;
+  }
+
+  String emailKey(String email) {
+    return KEY_PREFIX + "{" + tag(email) + "}:email:" + email;
+  }
+
+  static String tokenKey(String token) {
+    return KEY_PREFIX + "{" + token.substring(0, TAG_LENGTH) + "}:token:" + token;
+  }
+
+  private String tag(String email) {
+    try {
+      Mac mac = Mac.getInstance("HmacSHA256");
+      mac.init(tagKey);
+      return HexFormat.of().formatHex(mac.doFinal(email.getBytes(StandardCharsets.UTF_8)), 0, TAG_LENGTH / 2);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("HmacSHA256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier (inside {@code synchronized} or
+ * a native frame), which is what quietly turns virtual threads back into a small platform pool.
+ *
+ * <p>Listens to the JFR {@code jdk.VirtualThreadPinned} event in process. Each pinning site (the
+ * first frame outside the JDK) gets a {@code jvm.threads.virtual.pinned} timer tagged with it, and
+ * its first occurrence is logged with the stack so the culprit can be found without a recording.
+ */
+public class VirtualThreadPinningMonitor implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+  static final String EVENT = "jdk.VirtualThreadPinned";
+  private static final int LOGGED_FRAMES = 12;
+
+  private final RecordingStream stream;
+  private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+  private volatile MeterRegistry registry;
+
+  public VirtualThreadPinningMonitor(Duration threshold) {
+    this.stream = new RecordingStream();
+    stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(EVENT, this::onPinned);
+  }
+
+  public void start() {
+    stream.startAsync();
+  }
+
+  public void shutdown() {
+    stream.close();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  private void onPinned(RecordedEvent event) {
+    List<RecordedFrame> frames = event.getStackTrace() == null
+        ? List.of()
+        : event.getStackTrace().getFrames();
+    String site = pinningSite(frames);
+
+    MeterRegistry meters = registry;
+    if (meters != null) {
+      Timer.builder("jvm.threads.virtual.pinned")
+          .description("Time virtual threads spent blocked while pinned to their carrier")
+          .tag("site", site)
+          .register(meters)
+          .record(event.getDuration());
+    }
+    if (reportedSites.add(site)) {
+      log.warn("Virtual thread pinned for {} ms at {}:\n{}", event.getDuration().toMillis(), site,
+          describe(event.getStackTrace()));
+    }
+  }
+
+  static String pinningSite(List<RecordedFrame> frames) {
+    for (RecordedFrame frame : frames) {
+      if (!frame.isJavaFrame()) continue;
+      String type = frame.getMethod().getType().getName();
+      if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) continue;
+      return type + "." + frame.getMethod().getName();
+    }
+    return "unknown";
+  }
+
+  private static String describe(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) return "\t(no stack trace)";
+    return stackTrace.getFrames().stream()
+        .limit(LOGGED_FRAMES)
+        .map(frame -> "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber())
+        .collect(Collectors.joining("\n"));
+  }
+}
@@ -0,0 +1,340 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Verifies the access tokens issued by {@link TokenService}. For HMAC keys the header is matched
+ * byte for byte against the one we emit, the MAC is checked over the raw token and the payload is
+ * read in a single pass that only materializes the claims we use. Anything else (ES256, foreign
+ * headers) goes through java-jwt.
+ */
+@Component
+public class AccessTokenVerifier {
+
+  private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+  private static final byte[] ISSUER = TokenService.ISSUER.getBytes(StandardCharsets.UTF_8);
+
+  private final KeyRing keyRing;
+  private final TokenService tokenService;
+  private final Clock clock;
+  private final Map<SigningKey, FastKey> fastKeys = new ConcurrentHashMap<>();
+
+  @Autowired
+  public AccessTokenVerifier(KeyRing keyRing, TokenService tokenService) {
+    this(keyRing, tokenService, Clock.systemUTC());
+  }
+
+  AccessTokenVerifier(KeyRing keyRing, TokenService tokenService, Clock clock) {
+    this.keyRing = keyRing;
+    this.tokenService = tokenService;
+    this.clock = clock;
+  }
+
+  public VerifiedAccessToken verify(String token) {
+    if (token == null) return null;
+    int firstDot = token.indexOf('.');
+    int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+    if (secondDot < 0) return null;
+
+    FastKey fastKey = findFastKey(token, firstDot);
+    if (fastKey == null) return verifyWithJavaJwt(token);
+
+    try {
+      byte[] raw = token.getBytes(StandardCharsets.US_ASCII);
+      byte[] signature = BASE64_URL.decode(token.substring(secondDot + 1));
+      if (!MessageDigest.isEqual(fastKey.sign(raw, secondDot), signature)) return null;
+
+      byte[] payload = BASE64_URL.decode(token.substring(firstDot + 1, secondDot));
+      return new ClaimsReader(payload).read(clock.millis() / 1000, fastKey.key.kid());
+    } catch (IllegalArgumentException | IndexOutOfBoundsException | ArithmeticException | GeneralSecurityException e) {
+      return null;
+    }
+  }
+
+  private FastKey findFastKey(String token, int headerEnd) {
+    Collection<SigningKey> keys = keyRing.keys();
+    FastKey match = null;
+    int hmacKeys = 0;
+    for (SigningKey key : keys) {
+      if (key.hmacKey() == null) continue;
+      hmacKeys++;
+      FastKey fastKey = fastKeys.computeIfAbsent(key, FastKey::new);
+      String header = fastKey.header;
+      if (match == null && header.length() == headerEnd && token.startsWith(header)) match = fastKey;
+    }
+    // a key retired from the ring takes its prepared header and MACs with it
+    if (fastKeys.size() != hmacKeys) fastKeys.keySet().retainAll(keys);
+    return match;
+  }
+
+  int preparedKeys() {
+    return fastKeys.size();
+  }
+
+  private VerifiedAccessToken verifyWithJavaJwt(String token) {
+    DecodedJWT decodedJWT = tokenService.validateToken(token);
+    if (decodedJWT == null) return null;
+
+    List<String> roles = decodedJWT.getClaim("roles").asList(String.class);
+    if (roles == null) return null;
+
+    String email = decodedJWT.getClaim("email").asString();
+    String name = decodedJWT.getClaim("name").asString();
+    Long id = decodedJWT.getClaim("id").asLong();
+    return new VerifiedAccessToken(new UserJwtDTO(id, name, email), roles, decodedJWT.getExpiresAtAsInstant(),
+        decodedJWT.getKeyId());
+  }
+
+  private static final class FastKey {
+    private final SigningKey key;
+    private final String header;
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+    FastKey(SigningKey key) {
+      this.key = key;
+      String sample = JWT.create().withKeyId(key.kid()).sign(key.algorithm());
+      this.header = sample.substring(0, sample.indexOf('.'));
+    }
+
+    byte[] sign(byte[] raw, int length) throws GeneralSecurityException {
+      Mac mac = macs.poll();
+      if (mac == null) {
+        mac = Mac.getInstance("HmacSHA256");
+        mac.init(key.hmacKey());
+      }
+      try {
+        mac.update(raw, 0, length);
+        return mac.doFinal();
+      } finally {
+        macs.offer(mac);
+      }
+    }
+  }
+
+  /**
+   * Single pass over the JSON payload. Only iss, exp, nbf, iat, id, name, email and roles are
+   * decoded; every other member is skipped without allocating.
+   */
+  private static final class ClaimsReader {
+    private final byte[] json;
+    private int pos;
+
+    ClaimsReader(byte[] json) {
+      this.json = json;
+    }
+
+    VerifiedAccessToken read(long nowSeconds, String kid) {
+      boolean issuerMatches = false;
+      long exp = -1;
+      long nbf = Long.MIN_VALUE;
+      long iat = Long.MIN_VALUE;
+      Long id = null;
+      String name = null;
+      String email = null;
+      List<String> roles = null;
+
+      expect('{');
+      skipWhitespace();
+      if (peek() == '}') throw new IllegalArgumentException("Empty payload");
+      while (true) {
+        skipWhitespace();
+        int keyStart = pos + 1;
+        skipString();
+        int keyLength = pos - 1 - keyStart;
+        skipWhitespace();
+        expect(':');
+        skipWhitespace();
+
+        if (keyIs(keyStart, keyLength, "iss")) issuerMatches = stringEquals(ISSUER);
+        else if (keyIs(keyStart, keyLength, "exp")) exp = readLong();
+        else if (keyIs(keyStart, keyLength, "nbf")) nbf = readLong();
+        else if (keyIs(keyStart, keyLength, "iat")) iat = readLong();
+        else if (keyIs(keyStart, keyLength, "id")) id = readLong();
+        else if (keyIs(keyStart, keyLength, "name")) name = readNullableString();
+        else if (keyIs(keyStart, keyLength, "email")) email = readNullableString();
+        else if (keyIs(keyStart, keyLength, "roles")) roles = readStringArray();
+        else skipValue();
+
+        skipWhitespace();
+        byte next = json[pos++];
+        if (next == '}') break;
+        if (next != ',') throw new IllegalArgumentException("Malformed payload");
+      }
+
+      if (!issuerMatches || roles == null || exp < 0) return null;
+      if (nowSeconds >= exp || nowSeconds < nbf || nowSeconds < iat) return null;
+      return new VerifiedAccessToken(new UserJwtDTO(id, name, email), roles, Instant.ofEpochSecond(exp), kid);
+    }
+
+    private boolean keyIs(int start, int length, String key) {
+      if (length != key.length()) return false;
+      for (int i = 0; i < length; i++) {
+        if (json[start + i] != key.charAt(i)) return false;
+      }
+      return true;
+    }
+
+    private boolean stringEquals(byte[] expected) {
+      int start = pos + 1;
+      skipString();
+      int length = pos - 1 - start;
+      return length == expected.length && Arrays.equals(json, start, start + length, expected, 0, length);
+    }
+
+    private long readLong() {
+      int start = pos;
+      long value = 0;
+      boolean negative = json[pos] == '-';
+      if (negative) pos++;
+      while (pos < json.length && json[pos] >= '0' && json[pos] <= '9') {
+        value = Math.multiplyExact(value, 10) + (json[pos++] - '0');
+      }
+      if (pos == start || (negative && pos == start + 1)) throw new IllegalArgumentException("Expected number");
+      return negative ? -value : value;
+    }
+
+    private String readNullableString() {
+      if (peek() == 'n') {
+        skipLiteral();
+        return null;
+      }
+      return readString();
+    }
+
+    private List<String> readStringArray() {
+      expect('[');
+      List<String> values = new ArrayList<>(2);
+      skipWhitespace();
+      if (peek() == ']') {
+        pos++;
+        return values;
+      }
+      while (true) {
+        skipWhitespace();
+        values.add(readString());
+        skipWhitespace();
+        byte next = json[pos++];
+        if (next == ']') return values;
+        if (next != ',') throw new IllegalArgumentException("Malformed array");
+      }
+    }
+
+    private String readString() {
+      expect('"');
+      int start = pos;
+      while (json[pos] != '"') {
+        if (json[pos] == '\\') return readEscapedString(start);
+        pos++;
+      }
+      return new String(json, start, pos++ - start, StandardCharsets.UTF_8);
+    }
+
+    private String readEscapedString(int start) {
+      StringBuilder builder = new StringBuilder(pos - start + 16);
+      int segment = start;
+      while (json[pos] != '"') {
+        if (json[pos] != '\\') {
+          pos++;
+          continue;
+        }
+        builder.append(new String(json, segment, pos - segment, StandardCharsets.UTF_8));
+        byte escape = json[pos + 1];
+        pos += 2;
+        switch (escape) {
+          case '"', '\\', '/' -> builder.append((char) escape);
+          case 'b' -> builder.append('\b');
+          case 'f' -> builder.append('\f');
+          case 'n' -> builder.append('\n');
+          case 'r' -> builder.append('\r');
+          case 't' -> builder.append('\t');
+          case 'u' -> {
+            builder.append((char) Integer.parseInt(new String(json, pos, 4, StandardCharsets.US_ASCII), 16));
+            pos += 4;
+          }
+          default -> throw new IllegalArgumentException("Invalid escape");
+        }
+        segment = pos;
+      }
+      builder.append(new String(json, segment, pos - segment, StandardCharsets.UTF_8));
+      pos++;
+      return builder.toString();
+    }
+
+    private void skipValue() {
+      byte first = peek();
+      if (first == '"') {
+        skipString();
+      } else if (first == '{' || first == '[') {
+        skipContainer();
+      } else {
+        skipLiteral();
+      }
+    }
+
+    private void skipString() {
+      expect('"');
+      while (json[pos] != '"') {
+        pos += json[pos] == '\\' ? 2 : 1;
+      }
+      pos++;
+    }
+
+    private void skipContainer() {
+      int depth = 0;
+      do {
+        byte current = json[pos];
+        if (current == '"') {
+          skipString();
+          continue;
+        }
+        if (current == '{' || current == '[') depth++;
+        if (current == '}' || current == ']') depth--;
+        pos++;
+      } while (depth > 0);
+    }
+
+    private void skipLiteral() {
+      while (pos < json.length) {
+        byte current = json[pos];
+        if (current == ',' || current == '}' || current == ']' || isWhitespace(current)) return;
+        pos++;
+      }
+    }
+
+    private void skipWhitespace() {
+      while (pos < json.length && isWhitespace(json[pos])) pos++;
+    }
+
+    private static boolean isWhitespace(byte value) {
+      return value == ' ' || value == '\n' || value == '\r' || value == '\t';
+    }
+
+    private byte peek() {
+      return json[pos];
+    }
+
+    private void expect(char expected) {
+      if (json[pos++] != expected) throw new IllegalArgumentException("Expected " + expected);
+    }
+  }
+}
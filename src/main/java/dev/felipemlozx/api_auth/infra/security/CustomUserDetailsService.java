@@ -2,6 +2,7 @@ package dev.felipemlozx.api_auth.infra.security;
 
 import dev.felipemlozx.api_auth.entity.User;
 import dev.felipemlozx.api_auth.repository.UserRepository;
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -17,7 +18,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User user = this.repository.findByEmail(username)
+    User user = this.repository.findByEmailNormalized(EmailNormalizer.normalize(username))
         .orElseThrow(() -> new UsernameNotFoundException("User not found."));
     return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getPassword(), new ArrayList<>());
   }
@@ -0,0 +1,61 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class Jwks {
+  private Jwks(){}
+
+  private static final int P256_COORDINATE_LENGTH = 32;
+  private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+  public static Map<String, Object> keySet(KeyRing keyRing) {
+    List<Map<String, Object>> keys = keyRing.keys().stream()
+        .filter(SigningKey::isPublishable)
+        .map(Jwks::toJwk)
+        .toList();
+    return Map.of("keys", keys);
+  }
+
+  public static Map<String, Object> toJwk(SigningKey key) {
+    ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+    Map<String, Object> jwk = new LinkedHashMap<>();
+    jwk.put("kty", "EC");
+    jwk.put("crv", "P-256");
+    jwk.put("kid", key.kid());
+    jwk.put("use", "sig");
+    jwk.put("alg", key.algorithm().getName());
+    jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+    jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+    return jwk;
+  }
+
+  /**
+   * RFC 7638 thumbprint, so every replica loading the same key pair derives the same {@code kid}.
+   */
+  public static String thumbprint(ECPublicKey publicKey) {
+    String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(publicKey.getW().getAffineX())
+        + "\",\"y\":\"" + coordinate(publicKey.getW().getAffineY()) + "\"}";
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+      return BASE64_URL.encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private static String coordinate(BigInteger value) {
+    byte[] bytes = value.toByteArray();
+    byte[] fixed = new byte[P256_COORDINATE_LENGTH];
+    int length = Math.min(bytes.length, P256_COORDINATE_LENGTH);
+    System.arraycopy(bytes, bytes.length - length, fixed, P256_COORDINATE_LENGTH - length, length);
+    return BASE64_URL.encodeToString(fixed);
+  }
+}
@@ -0,0 +1,106 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable set of signing keys. Algorithms and verifiers are built once per key and the whole
+ * ring is swapped atomically on rotation, so readers never lock and never see a half-built key.
+ *
+ * <p>The keys come from configuration when {@code TokenConfig} builds the ring, so introducing a new
+ * key means restarting with it; only retirement by {@link #retireAt} happens while running.
+ */
+public class KeyRing {
+
+  private final AtomicReference<Snapshot> snapshot;
+  private final Clock clock;
+
+  public KeyRing(SigningKey initialKey) {
+    this(initialKey, Clock.systemUTC());
+  }
+
+  public KeyRing(SigningKey initialKey, Clock clock) {
+    this.snapshot = new AtomicReference<>(new Snapshot(initialKey, Map.of(initialKey.kid(), initialKey),
+        initialKey.kid(), Map.of()));
+    this.clock = clock;
+  }
+
+  public SigningKey active() {
+    return snapshot.get().active();
+  }
+
+  /**
+   * Tokens issued before key ids were introduced carry no {@code kid}; those resolve to the key the ring was created with.
+   */
+  public SigningKey find(String kid) {
+    Snapshot current = current();
+    return current.keys().get(kid != null ? kid : current.legacyKid());
+  }
+
+  public Collection<SigningKey> keys() {
+    return current().keys().values();
+  }
+
+  /**
+   * Makes {@code next} the signing key. Previous keys stay available for verification until retired.
+   */
+  public void rotate(SigningKey next) {
+    snapshot.updateAndGet(current -> {
+      Map<String, SigningKey> keys = new LinkedHashMap<>(current.keys());
+      keys.put(next.kid(), next);
+      return new Snapshot(next, Map.copyOf(keys), current.legacyKid(), current.retireAt());
+    });
+  }
+
+  public void retire(String kid) {
+    snapshot.updateAndGet(current -> current.without(kid));
+  }
+
+  /**
+   * Retires {@code kid} once {@code deadline} has passed. Every replica configured with the same
+   * deadline drops the key at the same moment, whenever it was started.
+   */
+  public void retireAt(String kid, Instant deadline) {
+    snapshot.updateAndGet(current -> {
+      if (current.active().kid().equals(kid)) {
+        throw new IllegalStateException("Cannot retire the active signing key");
+      }
+      Map<String, Instant> retireAt = new LinkedHashMap<>(current.retireAt());
+      retireAt.put(kid, deadline);
+      return new Snapshot(current.active(), current.keys(), current.legacyKid(), Map.copyOf(retireAt));
+    });
+  }
+
+  private Snapshot current() {
+    Snapshot current = snapshot.get();
+    if (current.retireAt().isEmpty()) return current;
+    Instant now = clock.instant();
+    if (current.retireAt().values().stream().allMatch(now::isBefore)) return current;
+    return snapshot.updateAndGet(ring -> {
+      Snapshot next = ring;
+      for (Map.Entry<String, Instant> deadline : ring.retireAt().entrySet()) {
+        if (!now.isBefore(deadline.getValue())) next = next.without(deadline.getKey());
+      }
+      return next;
+    });
+  }
+
+  private record Snapshot(SigningKey active, Map<String, SigningKey> keys, String legacyKid,
+                          Map<String, Instant> retireAt) {
+
+    Snapshot without(String kid) {
+      if (active.kid().equals(kid)) {
+        throw new IllegalStateException("Cannot retire the active signing key");
+      }
+      Map<String, SigningKey> remaining = new LinkedHashMap<>(keys);
+      remaining.remove(kid);
+      Map<String, Instant> deadlines = new LinkedHashMap<>(retireAt);
+      deadlines.remove(kid);
+      return new Snapshot(active, Map.copyOf(remaining), legacyKid, Map.copyOf(deadlines));
+    }
+  }
+}
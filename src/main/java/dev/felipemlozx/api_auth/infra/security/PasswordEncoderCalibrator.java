@@ -0,0 +1,44 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+/**
+ * Picks the highest cost parameter whose hash time stays under a target latency on the current
+ * hardware. Cost parameters grow the work monotonically (BCrypt strength doubles it), so the
+ * search stops at the first value over the target.
+ */
+public final class PasswordEncoderCalibrator {
+  private PasswordEncoderCalibrator(){}
+
+  private static final Logger log = LoggerFactory.getLogger(PasswordEncoderCalibrator.class);
+  private static final String SAMPLE_PASSWORD = "Calibration#Password1";
+  private static final int SAMPLES = 3;
+
+  public static int calibrate(String name, IntFunction<PasswordEncoder> encoderForCost, int minCost, int maxCost, Duration target) {
+    int chosen = minCost;
+    for (int cost = minCost; cost <= maxCost; cost++) {
+      Duration elapsed = measure(encoderForCost.apply(cost));
+      log.info("{} cost {} hashes in {} ms", name, cost, elapsed.toMillis());
+      if (elapsed.compareTo(target) > 0) break;
+      chosen = cost;
+    }
+    log.info("{} calibrated to cost {} for a target of {} ms", name, chosen, target.toMillis());
+    return chosen;
+  }
+
+  private static Duration measure(PasswordEncoder encoder) {
+    encoder.encode(SAMPLE_PASSWORD);
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < SAMPLES; i++) {
+      long start = System.nanoTime();
+      encoder.encode(SAMPLE_PASSWORD);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    return Duration.ofNanos(best);
+  }
+}
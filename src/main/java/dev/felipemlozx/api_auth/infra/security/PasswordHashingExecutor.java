@@ -0,0 +1,79 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt work (login checks and sign-up hashing) on a fixed pool with a bounded queue so a
+ * login or registration storm cannot take every request thread and core. When the queue is full the caller fails fast with
+ * {@link PasswordHashingRejectedException} instead of piling up.
+ */
+public class PasswordHashingExecutor implements MeterBinder {
+
+  private final ThreadPoolExecutor executor;
+  private final int queueCapacity;
+  private final Duration retryAfter;
+  private final LongAdder rejected = new LongAdder();
+
+  public PasswordHashingExecutor(int poolSize, int queueCapacity, Duration retryAfter) {
+    this.queueCapacity = queueCapacity;
+    this.retryAfter = retryAfter;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        runnable -> {
+          Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  public <T> T submit(Supplier<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task::get);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingRejectedException(retryAfter);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new ExecutorServiceMetrics(executor, "password.hashing", Tags.empty()).bindTo(registry);
+    Gauge.builder("password.hashing.queue.capacity", this, hashing -> hashing.queueCapacity)
+        .register(registry);
+    FunctionCounter.builder("password.hashing.rejected", rejected, LongAdder::sum)
+        .register(registry);
+  }
+}
@@ -0,0 +1,17 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import java.time.Duration;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public PasswordHashingRejectedException(Duration retryAfter) {
+    super("Password hashing queue is full");
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
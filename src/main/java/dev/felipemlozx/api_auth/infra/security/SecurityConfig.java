@@ -1,6 +1,7 @@
 package dev.felipemlozx.api_auth.infra.security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,11 +10,17 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -35,15 +42,52 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.GET, "/auth/verify-email/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/auth/refresh").permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/resend-verification-email/**").permitAll()
+            .requestMatchers(HttpMethod.GET, "/auth/.well-known/jwks.json").permitAll()
+            .requestMatchers("/admin/**").hasAuthority(TokenService.ADMIN_ROLE)
+            // hashing, cache and bloom meters describe the deployment, not the caller's account
+            .requestMatchers("/actuator/metrics/**").hasAuthority(TokenService.ADMIN_ROLE)
             .anyRequest().authenticated()
         )
         .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class);
     return http.build();
   }
 
+  /**
+   * Hashes are stored as {id}hash so the algorithm or its cost can change without invalidating
+   * existing passwords; UserService re-hashes on login whenever upgradeEncoding says so. Hashes
+   * written before the prefix existed are plain BCrypt and still match through the default encoder.
+   */
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(@Value("${api.password.encoder:bcrypt}") String encodingId,
+                                         @Value("${api.password.bcrypt.strength:10}") int bcryptStrength,
+                                         @Value("${api.password.argon2.memory-kib:19456}") int argon2Memory,
+                                         @Value("${api.password.argon2.iterations:2}") int argon2Iterations,
+                                         @Value("${api.password.argon2.parallelism:1}") int argon2Parallelism,
+                                         @Value("${api.password.target-latency:}") Duration targetLatency) {
+    if (targetLatency != null && "bcrypt".equals(encodingId)) {
+      bcryptStrength = PasswordEncoderCalibrator.calibrate("bcrypt", BCryptPasswordEncoder::new, 4, 16, targetLatency);
+    }
+    if (targetLatency != null && "argon2".equals(encodingId)) {
+      argon2Iterations = PasswordEncoderCalibrator.calibrate("argon2",
+          iterations -> new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2Memory, iterations), 1, 10, targetLatency);
+    }
+
+    Map<String, PasswordEncoder> encoders = new HashMap<>();
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    encoders.put("bcrypt", bcrypt);
+    encoders.put("argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2Memory, argon2Iterations));
+
+    DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+    delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+    return delegating;
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public PasswordHashingExecutor passwordHashingExecutor(@Value("${api.password-hashing.pool-size:0}") int poolSize,
+                                                         @Value("${api.password-hashing.queue-capacity:64}") int queueCapacity,
+                                                         @Value("${api.password-hashing.retry-after:2s}") Duration retryAfter) {
+    int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    return new PasswordHashingExecutor(threads, queueCapacity, retryAfter);
   }
 
   @Bean
@@ -0,0 +1,43 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+
+/**
+ * A key of the {@link KeyRing}. {@code publicKey} is only set for asymmetric keys, which are the
+ * ones published on the JWKS endpoint; {@code hmacKey} only for HMAC keys, which the
+ * {@link AccessTokenVerifier} can check without going through java-jwt.
+ */
+public record SigningKey(String kid, Algorithm algorithm, JWTVerifier verifier, PublicKey publicKey, SecretKeySpec hmacKey) {
+
+  public static SigningKey hmac(String kid, String secret, String issuer) {
+    SecretKeySpec hmacKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    return of(kid, Algorithm.HMAC256(secret), null, hmacKey, issuer);
+  }
+
+  public static SigningKey es256(ECPublicKey publicKey, ECPrivateKey privateKey, String issuer) {
+    return es256(Jwks.thumbprint(publicKey), publicKey, privateKey, issuer);
+  }
+
+  public static SigningKey es256(String kid, ECPublicKey publicKey, ECPrivateKey privateKey, String issuer) {
+    return of(kid, Algorithm.ECDSA256(publicKey, privateKey), publicKey, null, issuer);
+  }
+
+  private static SigningKey of(String kid, Algorithm algorithm, PublicKey publicKey, SecretKeySpec hmacKey, String issuer) {
+    JWTVerifier verifier = JWT.require(algorithm)
+        .withIssuer(issuer)
+        .build();
+    return new SigningKey(kid, algorithm, verifier, publicKey, hmacKey);
+  }
+
+  public boolean isPublishable() {
+    return publicKey != null;
+  }
+}
@@ -0,0 +1,88 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Configuration
+public class TokenConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(TokenConfig.class);
+
+  /**
+   * In {@code es256} mode the HMAC key only stays in the ring until {@code api.token.hmac-accept-until},
+   * so tokens issued before the switch keep verifying for a bounded time and nobody holding the shared
+   * secret can mint accepted tokens after it. Without that setting HMAC tokens are refused right away.
+   */
+  @Bean
+  public KeyRing keyRing(@Value("${api.secret.key}") String secret,
+                         @Value("${api.secret.kid:default}") String kid,
+                         @Value("${api.token.signing:hmac}") String signing,
+                         @Value("${api.token.ec.private-key:}") String ecPrivateKey,
+                         @Value("${api.token.ec.public-key:}") String ecPublicKey,
+                         @Value("${api.token.hmac-accept-until:}") String hmacAcceptUntil) {
+    SigningKey hmacKey = SigningKey.hmac(kid, secret, TokenService.ISSUER);
+    if (!"es256".equalsIgnoreCase(signing)) {
+      return new KeyRing(hmacKey);
+    }
+    SigningKey ecKey = loadEcKey(ecPrivateKey, ecPublicKey);
+    Instant acceptUntil = parseInstant("api.token.hmac-accept-until", hmacAcceptUntil);
+    if (acceptUntil == null || !Instant.now().isBefore(acceptUntil)) {
+      return new KeyRing(ecKey);
+    }
+    log.info("Accepting HMAC tokens signed with key {} until {}", kid, acceptUntil);
+    KeyRing keyRing = new KeyRing(hmacKey);
+    keyRing.rotate(ecKey);
+    keyRing.retireAt(kid, acceptUntil);
+    return keyRing;
+  }
+
+  @Bean
+  public VerifiedTokenCache verifiedTokenCache(@Value("${api.security.token-cache.max-entries:10000}") int maxEntries,
+                                               KeyRing keyRing) {
+    return new VerifiedTokenCache(maxEntries, Clock.systemUTC(), keyRing);
+  }
+
+  private SigningKey loadEcKey(String privateKey, String publicKey) {
+    try {
+      if (privateKey.isBlank() || publicKey.isBlank()) {
+        // a generated pair would differ per replica and per restart, breaking every token issued elsewhere
+        throw new IllegalStateException("api.token.signing=es256 requires api.token.ec.private-key and "
+            + "api.token.ec.public-key");
+      }
+      KeyFactory factory = KeyFactory.getInstance("EC");
+      var ecPrivate = (ECPrivateKey) factory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(privateKey)));
+      var ecPublic = (ECPublicKey) factory.generatePublic(new X509EncodedKeySpec(decodePem(publicKey)));
+      return SigningKey.es256(ecPublic, ecPrivate, TokenService.ISSUER);
+    } catch (GeneralSecurityException | IllegalArgumentException e) {
+      throw new IllegalStateException("Invalid ES256 key configuration", e);
+    }
+  }
+
+  private static Instant parseInstant(String property, String value) {
+    if (value.isBlank()) return null;
+    try {
+      return Instant.parse(value.trim());
+    } catch (DateTimeParseException e) {
+      throw new IllegalStateException(property + " must be an ISO-8601 instant such as 2026-01-31T00:00:00Z", e);
+    }
+  }
+
+  private static byte[] decodePem(String value) {
+    String base64 = value.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+    return Base64.getDecoder().decode(base64);
+  }
+}
@@ -1,12 +1,13 @@
 package dev.felipemlozx.api_auth.infra.security;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 
-import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -15,43 +16,59 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class TokenService {
-  @Value("${api.secret.key}")
-  private String secret;
-  private static final String ISSUER = "API-auth";
+  static final String ISSUER = "API-auth";
+  public static final String USER_ROLE = "USER_ROLE";
+  public static final String ADMIN_ROLE = "ADMIN_ROLE";
 
+  private final KeyRing keyRing;
+  private final Set<String> adminEmails;
 
-  public String generateToken(User user) {
+  public TokenService(KeyRing keyRing) {
+    this(keyRing, Set.of());
+  }
+
+  @Autowired
+  public TokenService(KeyRing keyRing, @Value("${api.admin.emails:}") Set<String> adminEmails) {
+    this.keyRing = keyRing;
+    this.adminEmails = adminEmails.stream().map(EmailNormalizer::normalize).collect(Collectors.toUnmodifiableSet());
+  }
+
+  public String generateToken(UserJwtDTO user) {
     try {
-        Algorithm algorithm = Algorithm.HMAC256(secret);
-        
+        SigningKey key = keyRing.active();
+
         return JWT.create()
+                .withKeyId(key.kid())
                 .withIssuer(ISSUER)
-                .withClaim("id", user.getId())
-                .withClaim("name", user.getName())
-                .withClaim("email", user.getEmail())
-                .withClaim("roles", List.of("USER_ROLE"))
+                .withClaim("id", user.id())
+                .withClaim("name", user.name())
+                .withClaim("email", user.email())
+                .withClaim("roles", rolesOf(user))
                 .withIssuedAt(new Date())
                 .withExpiresAt(getExpires())
-                .sign(algorithm);
+                .sign(key.algorithm());
 
     } catch (JWTCreationException e) {
         throw new IllegalStateException("Error while generating token", e);
     }
   }
 
-  public String generateRefreshToken(User user) {
+  public String generateRefreshToken(UserJwtDTO user) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
+      SigningKey key = keyRing.active();
 
       return JWT.create()
+          .withKeyId(key.kid())
           .withIssuer(ISSUER)
-          .withClaim("id", user.getId())
+          .withClaim("id", user.id())
           .withIssuedAt(new Date())
           .withExpiresAt(getRefreshExpires())
-          .sign(algorithm);
+          .sign(key.algorithm());
 
     } catch (JWTCreationException e) {
       throw new IllegalStateException("Error while generating refresh token", e);
@@ -59,19 +76,23 @@ public class TokenService {
   }
 
   public DecodedJWT validateToken(String token) {
+    if (token == null) return null;
     try {
-        Algorithm algorithm = Algorithm.HMAC256(secret);
+        DecodedJWT decoded = JWT.decode(token);
+        SigningKey key = keyRing.find(decoded.getKeyId());
+        if (key == null) return null;
 
-        return JWT.require(algorithm)
-                .withIssuer(ISSUER)
-                .build()
-                .verify(token);
+        return key.verifier().verify(decoded);
 
     } catch (JWTVerificationException e) {
         return null; // token inválido ou expirado
     }
 }
 
+  private List<String> rolesOf(UserJwtDTO user) {
+    return adminEmails.contains(EmailNormalizer.normalize(user.email())) ? List.of(USER_ROLE, ADMIN_ROLE) : List.of(USER_ROLE);
+  }
+
   private Instant getExpires() {
     return LocalDateTime.now().plusHours(1).toInstant(ZoneOffset.ofHours(-3));
   }
@@ -0,0 +1,9 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+/** {@code kid} is the header's key id as the {@link KeyRing} resolves it; null for tokens issued without one. */
+public record VerifiedAccessToken(UserJwtDTO user, List<String> roles, Instant expiresAt, String kid) { }
@@ -0,0 +1,144 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of already verified access tokens, keyed by the SHA-256 of the raw token so the
+ * cache never holds usable credentials. Entries die with the token's {@code exp}, and a hit only
+ * counts while the key that signed the token is still in the {@link KeyRing}: retiring a key stops
+ * its tokens at once, cached or not.
+ *
+ * <p>Only the immutable principal and authorities are cached; every request gets its own
+ * {@link Authentication}, since those are mutable and end up in per-request security contexts.
+ */
+public class VerifiedTokenCache implements MeterBinder {
+
+  private final int maxEntries;
+  private final Clock clock;
+  private final KeyRing keyRing;
+  private final Cache<ByteBuffer, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public VerifiedTokenCache(int maxEntries, Clock clock, KeyRing keyRing) {
+    this.maxEntries = maxEntries;
+    this.clock = clock;
+    this.keyRing = keyRing;
+    this.entries = Caffeine.newBuilder()
+        .maximumSize(Math.max(maxEntries, 0))
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+        .expireAfter(new Expiry<ByteBuffer, Entry>() {
+          @Override
+          public long expireAfterCreate(ByteBuffer key, Entry entry, long currentTime) {
+            return Math.max(0, Duration.between(clock.instant(), entry.expiresAt()).toNanos());
+          }
+
+          @Override
+          public long expireAfterUpdate(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(ByteBuffer key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .executor(Runnable::run)
+        .build();
+  }
+
+  /** A new {@link Authentication} for a cached token, or null. */
+  public Authentication get(String token) {
+    if (maxEntries <= 0) return null;
+    ByteBuffer key = digest(token);
+    Entry entry = entries.getIfPresent(key);
+    if (entry != null && keyRing.find(entry.kid()) == null) {
+      entries.invalidate(key);
+      entry = null;
+    }
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.newAuthentication();
+  }
+
+  /** Caches {@code verified} and returns an {@link Authentication} for the current request. */
+  public Authentication put(String token, VerifiedAccessToken verified) {
+    Entry entry = new Entry(verified.user(), verified.roles().stream()
+        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+        .toList(), verified.kid(), verified.expiresAt());
+    if (maxEntries > 0 && entry.expiresAt() != null && clock.instant().isBefore(entry.expiresAt())) {
+      entries.put(digest(token), entry);
+    }
+    return entry.newAuthentication();
+  }
+
+  public void invalidateAll() {
+    entries.invalidateAll();
+  }
+
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  public long missCount() {
+    return misses.sum();
+  }
+
+  public long size() {
+    entries.cleanUp();
+    return entries.estimatedSize();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("auth.token.cache.requests", hits, LongAdder::sum)
+        .tag("result", "hit")
+        .register(registry);
+    FunctionCounter.builder("auth.token.cache.requests", misses, LongAdder::sum)
+        .tag("result", "miss")
+        .register(registry);
+    Gauge.builder("auth.token.cache.size", entries, Cache::estimatedSize)
+        .register(registry);
+  }
+
+  private static ByteBuffer digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private record Entry(UserJwtDTO user, List<GrantedAuthority> authorities, String kid, Instant expiresAt) {
+
+    Authentication newAuthentication() {
+      return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+  }
+}
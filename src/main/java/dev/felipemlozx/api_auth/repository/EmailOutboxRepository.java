@@ -0,0 +1,35 @@
+package dev.felipemlozx.api_auth.repository;
+
+import dev.felipemlozx.api_auth.entity.EmailOutboxMessage;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+  /**
+   * Locks the next due messages, skipping rows another dispatcher has locked (lock timeout -2 is
+   * Hibernate's SKIP LOCKED), so replicas drain the outbox in parallel without double sends.
+   * Must run inside a transaction.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("""
+      select m from EmailOutboxMessage m
+      where m.status = :status and m.nextAttemptAt <= :now
+      order by m.nextAttemptAt
+      """)
+  List<EmailOutboxMessage> lockDue(@Param("status") EmailOutboxMessage.Status status,
+                                   @Param("now") Instant now,
+                                   Pageable page);
+
+  long countByStatus(EmailOutboxMessage.Status status);
+}
@@ -1,15 +1,107 @@
 package dev.felipemlozx.api_auth.repository;
 
+import dev.felipemlozx.api_auth.dto.UnverifiedUserDTO;
+import dev.felipemlozx.api_auth.dto.UserCredentialsDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.dto.UserSummaryDTO;
 import dev.felipemlozx.api_auth.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+/** Every email parameter and result here is the normalized form (see EmailNormalizer). */
+@Transactional(readOnly = true)
 public interface UserRepository extends JpaRepository<User, Long> {
-  Optional<User> findByEmail(String login);
 
-  List<User> findByVerifiedIsFalse();
+  String EMAIL_UNIQUE_CONSTRAINT = "uk_tb_user_email_normalized";
 
-  boolean existsByEmail(String email);
+  /**
+   * Whether {@code e} is the unique index on the normalized email refusing a second account for the
+   * same address, as opposed to any other integrity violation (a null or oversized column, a
+   * primary key clash), which is a bug rather than a user error.
+   */
+  static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      String name = cause instanceof ConstraintViolationException violation ? violation.getConstraintName() : null;
+      if (name == null) name = cause.getMessage();
+      if (name != null && name.toLowerCase(Locale.ROOT).contains(EMAIL_UNIQUE_CONSTRAINT)) return true;
+    }
+    return false;
+  }
+
+  Optional<User> findByEmailNormalized(String email);
+
+  @Query("select new dev.felipemlozx.api_auth.dto.UserCredentialsDTO(u.id, u.name, u.email, u.password, u.verified) from User u where u.emailNormalized = :email")
+  Optional<UserCredentialsDTO> findCredentialsByEmail(@Param("email") String email);
+
+  @Query("select new dev.felipemlozx.api_auth.dto.UserJwtDTO(u.id, u.name, u.email) from User u where u.id = :id")
+  Optional<UserJwtDTO> findJwtUserById(@Param("id") Long id);
+
+  /** Marks the user verified while the verification window is open; returns the rows updated. */
+  @Transactional
+  @Modifying
+  @Query("update User u set u.verified = true where u.emailNormalized = :email and u.timeVerify > :now")
+  int markVerified(@Param("email") String email, @Param("now") Instant now);
+
+  @Transactional
+  @Modifying
+  @Query("update User u set u.password = :password where u.id = :id")
+  int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+  /**
+   * Expired unverified users, oldest first, served by the (verified, time_verify) index.
+   * Only id and email are selected so a batch never materializes whole entities.
+   */
+  @Query("""
+      select new dev.felipemlozx.api_auth.dto.UnverifiedUserDTO(u.id, u.emailNormalized)
+      from User u
+      where u.verified = false and u.timeVerify < :now
+      order by u.timeVerify
+      """)
+  List<UnverifiedUserDTO> findExpiredUnverified(@Param("now") Instant now, Pageable page);
+
+  boolean existsByEmailNormalized(String email);
+
+  @Query("select u.emailNormalized from User u where u.emailNormalized in :emails")
+  Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+  /**
+   * One keyset page of the admin listing: users after {@code afterId} in id order, walking the
+   * primary key instead of skipping an OFFSET. Null filters match everything.
+   */
+  @Query("""
+      select new dev.felipemlozx.api_auth.dto.UserSummaryDTO(u.id, u.name, u.email, u.verified, u.timeVerify)
+      from User u
+      where u.id > :afterId
+        and (:verified is null or u.verified = :verified)
+        and (:timeVerifyFrom is null or u.timeVerify >= :timeVerifyFrom)
+        and (:timeVerifyTo is null or u.timeVerify < :timeVerifyTo)
+      order by u.id
+      """)
+  List<UserSummaryDTO> findPageAfter(@Param("afterId") long afterId,
+                                     @Param("verified") Boolean verified,
+                                     @Param("timeVerifyFrom") Instant timeVerifyFrom,
+                                     @Param("timeVerifyTo") Instant timeVerifyTo,
+                                     Pageable page);
+
+  /** Every registered email, streamed; must be consumed inside a transaction. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("select u.emailNormalized from User u")
+  Stream<String> streamAllEmails();
 }
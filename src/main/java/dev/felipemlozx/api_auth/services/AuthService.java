@@ -9,14 +9,16 @@ import dev.felipemlozx.api_auth.core.Email;
 import dev.felipemlozx.api_auth.core.EmailCheckFailure;
 import dev.felipemlozx.api_auth.core.EmailCheckResult;
 import dev.felipemlozx.api_auth.core.EmailCheckSuccess;
+import dev.felipemlozx.api_auth.core.EmailResendThrottled;
 import dev.felipemlozx.api_auth.core.LoginFailure;
 import dev.felipemlozx.api_auth.core.LoginResult;
 import dev.felipemlozx.api_auth.core.LoginSuccess;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
 import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.config.EmailResendLimiter;
 import dev.felipemlozx.api_auth.infra.security.TokenService;
-import jakarta.mail.MessagingException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -28,27 +30,27 @@ import java.util.Optional;
 public class AuthService {
 
   private final UserService userService;
-  private final EmailService emailService;
+  private final EmailOutbox emailOutbox;
   private final TokenService tokenService;
+  private final EmailResendLimiter resendLimiter;
 
   @Value("${API_URL}")
   private String apiUrl;
 
-  public AuthService(UserService userService, EmailService emailService, TokenService tokenService) {
+  public AuthService(UserService userService, EmailOutbox emailOutbox, TokenService tokenService,
+                     EmailResendLimiter resendLimiter) {
     this.userService = userService;
-    this.emailService = emailService;
+    this.emailOutbox = emailOutbox;
     this.tokenService = tokenService;
+    this.resendLimiter = resendLimiter;
   }
 
-  public List<String> register(CreateUserDTO body) throws MessagingException {
-    List<String> result = userService.register(body);
-    if(result.isEmpty()){
-      String token = userService.createEmailVerificationToken(body.email());
-      if(token != null ) {
-        emailService.sendEmail(body.email(), body.name(), generateLinkToVerifyEmail(token));
-      }
-    }
-    return result;
+  public List<String> register(CreateUserDTO body) {
+    // the email is queued with the user and sent by EmailOutboxDispatcher, off the request path
+    return userService.register(body, user -> {
+      String token = userService.createEmailVerificationToken(user);
+      emailOutbox.enqueueVerification(user.getEmail(), user.getName(), generateLinkToVerifyEmail(token));
+    });
   }
 
   protected String generateLinkToVerifyEmail(String token){
@@ -79,7 +81,7 @@ public class AuthService {
       return new LoginFailure(AuthError.REFRESH_TOKEN_INVALID);
     }
     long userId = res.getClaim("id").asLong();
-    User user = userService.findById(userId);
+    UserJwtDTO user = userService.findJwtUserById(userId);
     String newAccessToken = tokenService.generateToken(user);
 
     return new LoginSuccess(newAccessToken, refreshToken);
@@ -92,21 +94,20 @@ public class AuthService {
     if(user.isVerified()) return new EmailCheckFailure(Email.USER_IS_VERIFIED);
     if(!user.getTimeVerify().isAfter(Instant.now())) return new EmailCheckFailure(Email.TIME_TO_CHECK_EMAIL_IS_OVER);
 
-    String token = userService.createEmailVerificationToken(user.getEmail());
-    boolean emailWasSend = sendEmail(user.getEmail(), user.getName(), token);
-    if(!emailWasSend) return new EmailCheckFailure(Email.EMAIL_NOT_SEND);
-    return new EmailCheckSuccess(Email.EMAIL_SEND);
-  }
-
-  protected boolean sendEmail(String email, String name, String token) {
-    try{
-      if(token != null ) {
-        emailService.sendEmail(email, name, generateLinkToVerifyEmail(token));
-        return true;
+    EmailResendLimiter.Decision decision = resendLimiter.acquire(user.getEmailNormalized());
+    switch (decision.outcome()) {
+      case COALESCED -> {
+        return new EmailCheckSuccess(Email.EMAIL_ALREADY_QUEUED);
+      }
+      case RECIPIENT_LIMITED, GLOBAL_LIMITED -> {
+        return new EmailResendThrottled(decision.retryAfter());
       }
-    } catch (MessagingException ex){
-      return false;
+      case SEND -> { }
     }
-    return false;
+
+    // the live token is reused, so every email sent so far keeps working
+    String token = userService.createEmailVerificationToken(user);
+    emailOutbox.enqueueVerification(user.getEmail(), user.getName(), generateLinkToVerifyEmail(token));
+    return new EmailCheckSuccess(Email.EMAIL_SEND);
   }
 }
@@ -0,0 +1,77 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.infra.bloom.EmailBloomFilter;
+import dev.felipemlozx.api_auth.infra.config.RedisJobLease;
+import dev.felipemlozx.api_auth.infra.config.ReplicaRoutingDataSource;
+import dev.felipemlozx.api_auth.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+/**
+ * Fills the {@link EmailBloomFilter} by streaming every email from {@code tb_user}: at startup, and
+ * again when the cleanup job finds it stale, after enough deleted users or a registration that
+ * could not be added. With the shared Redis store only one replica rebuilds at a time.
+ */
+@Component
+public class EmailBloomFilterLoader {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailBloomFilterLoader.class);
+  static final String JOB_NAME = "email-bloom-rebuild";
+
+  private final EmailBloomFilter filter;
+  private final UserRepository userRepository;
+  private final RedisJobLease jobLease;
+  private final TransactionTemplate readOnly;
+  private final boolean enabled;
+  private final boolean shared;
+  private final Duration minRebuildInterval;
+
+  public EmailBloomFilterLoader(EmailBloomFilter filter, UserRepository userRepository, RedisJobLease jobLease,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${api.email-bloom.enabled:true}") boolean enabled,
+                                @Value("${api.email-bloom.store:redis}") String store,
+                                @Value("${api.email-bloom.min-rebuild-interval:10m}") Duration minRebuildInterval) {
+    this.filter = filter;
+    this.userRepository = userRepository;
+    this.jobLease = jobLease;
+    this.readOnly = new TransactionTemplate(transactionManager);
+    this.readOnly.setReadOnly(true);
+    this.enabled = enabled;
+    this.shared = "redis".equalsIgnoreCase(store);
+    this.minRebuildInterval = minRebuildInterval;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildIfStale() {
+    if (!enabled) return;
+    try {
+      if (!filter.needsRebuild()) return;
+      if (shared) jobLease.runIfDue(JOB_NAME, minRebuildInterval, this::rebuild);
+      else rebuild();
+    } catch (RuntimeException e) {
+      // until a build succeeds the filter answers "maybe" for everything, which is only slower
+      log.warn("Email bloom filter rebuild failed: {}", e.getMessage());
+    }
+  }
+
+  void rebuild() {
+    long start = System.nanoTime();
+    // the primary, so rows written just before the rebuild started are not missed on a lagging replica,
+    // and opened inside the rebuild, so its snapshot is taken once registrations already dual-write
+    long count = filter.rebuild(sink -> ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> {
+      try (Stream<String> emails = userRepository.streamAllEmails()) {
+        return sink.applyAsLong(emails.iterator());
+      }
+    })));
+    log.info("Email bloom filter rebuilt with {} emails in {} ms", count, Duration.ofNanos(System.nanoTime() - start).toMillis());
+  }
+}
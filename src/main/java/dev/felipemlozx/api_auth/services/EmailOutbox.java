@@ -0,0 +1,20 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.entity.EmailOutboxMessage;
+import dev.felipemlozx.api_auth.repository.EmailOutboxRepository;
+import org.springframework.stereotype.Service;
+
+/** Queues verification emails for {@link EmailOutboxDispatcher}, in the caller's transaction. */
+@Service
+public class EmailOutbox {
+
+  private final EmailOutboxRepository outboxRepository;
+
+  public EmailOutbox(EmailOutboxRepository outboxRepository) {
+    this.outboxRepository = outboxRepository;
+  }
+
+  public void enqueueVerification(String to, String name, String link) {
+    outboxRepository.save(new EmailOutboxMessage(to, name, link));
+  }
+}
@@ -0,0 +1,197 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.entity.EmailOutboxMessage;
+import dev.felipemlozx.api_auth.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drains the email outbox in batches. A batch is claimed in a short transaction (row locks with
+ * SKIP LOCKED, then pushed {@code claim-timeout} into the future), sent over one SMTP connection
+ * outside any transaction, and settled: sent rows are deleted, failed ones are retried with
+ * exponential backoff until {@code max-attempts}, after which they are kept as DEAD.
+ *
+ * <p>Delivery is at least once: a replica that dies between sending and settling leaves its claim
+ * to expire and the batch is sent again.
+ */
+@Component
+@ConditionalOnProperty(name = "api.email.outbox.dispatcher.enabled", matchIfMissing = true)
+public class EmailOutboxDispatcher implements MeterBinder {
+
+  private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+  private static final int MAX_ERROR_LENGTH = 1000;
+
+  private final EmailOutboxRepository outboxRepository;
+  private final EmailService emailService;
+  private final TransactionTemplate transaction;
+  private final int batchSize;
+  private final int maxBatchesPerRun;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final Duration maxBackoff;
+  private final Duration claimTimeout;
+
+  private final LongAdder sent = new LongAdder();
+  private final LongAdder retried = new LongAdder();
+  private final LongAdder dead = new LongAdder();
+
+  public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, EmailService emailService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${api.email.outbox.batch-size:50}") int batchSize,
+                               @Value("${api.email.outbox.max-batches-per-run:20}") int maxBatchesPerRun,
+                               @Value("${api.email.outbox.max-attempts:8}") int maxAttempts,
+                               @Value("${api.email.outbox.initial-backoff:10s}") Duration initialBackoff,
+                               @Value("${api.email.outbox.max-backoff:30m}") Duration maxBackoff,
+                               @Value("${api.email.outbox.claim-timeout:5m}") Duration claimTimeout) {
+    this.outboxRepository = outboxRepository;
+    this.emailService = emailService;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.maxBatchesPerRun = maxBatchesPerRun;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.maxBackoff = maxBackoff;
+    this.claimTimeout = claimTimeout;
+  }
+
+  @Scheduled(fixedDelayString = "${api.email.outbox.poll-interval:1000}")
+  public void dispatch() {
+    try {
+      // keep going while batches come back full, so a backlog drains without waiting a poll per batch,
+      // but return after a few: the scheduler has one thread and the cleanup job waits behind us
+      for (int batches = 1; dispatchBatch() == batchSize && batches < maxBatchesPerRun; batches++) {
+        log.debug("Outbox batch full, dispatching the next one");
+      }
+    } catch (DataAccessException e) {
+      log.warn("Skipping email outbox dispatch this round: {}", e.getMessage());
+    }
+  }
+
+  /** Claims, sends and settles one batch; returns how many messages it claimed. */
+  int dispatchBatch() {
+    Instant now = Instant.now();
+    List<EmailOutboxMessage> batch = transaction.execute(status -> {
+      List<EmailOutboxMessage> due = outboxRepository.lockDue(EmailOutboxMessage.Status.PENDING, now,
+          PageRequest.ofSize(batchSize));
+      due.forEach(message -> message.setNextAttemptAt(now.plus(claimTimeout)));
+      return due;
+    });
+    if (batch == null || batch.isEmpty()) return 0;
+
+    Map<EmailOutboxMessage, Exception> failures = send(batch);
+    settle(batch, failures);
+    return batch.size();
+  }
+
+  private Map<EmailOutboxMessage, Exception> send(List<EmailOutboxMessage> batch) {
+    Map<EmailOutboxMessage, Exception> failures = new HashMap<>();
+    Map<MimeMessage, EmailOutboxMessage> outgoing = new LinkedHashMap<>();
+    for (EmailOutboxMessage message : batch) {
+      try {
+        outgoing.put(emailService.buildVerificationEmail(message.getRecipient(), message.getRecipientName(),
+            message.getLink()), message);
+      } catch (MessagingException e) {
+        failures.put(message, e);
+      }
+    }
+    if (outgoing.isEmpty()) return failures;
+
+    try {
+      emailService.send(new ArrayList<>(outgoing.keySet()));
+    } catch (MailSendException e) {
+      if (e.getFailedMessages().isEmpty()) {
+        outgoing.values().forEach(message -> failures.put(message, e));
+      } else {
+        e.getFailedMessages().forEach((mime, cause) -> {
+          EmailOutboxMessage message = outgoing.get(mime);
+          if (message != null) failures.put(message, cause);
+        });
+      }
+    } catch (MailException e) {
+      outgoing.values().forEach(message -> failures.put(message, e));
+    }
+    return failures;
+  }
+
+  private void settle(List<EmailOutboxMessage> batch, Map<EmailOutboxMessage, Exception> failures) {
+    Instant now = Instant.now();
+    List<Long> delivered = new ArrayList<>(batch.size());
+    List<EmailOutboxMessage> failed = new ArrayList<>(failures.size());
+    for (EmailOutboxMessage message : batch) {
+      Exception failure = failures.get(message);
+      if (failure == null) {
+        delivered.add(message.getId());
+        continue;
+      }
+      int attempts = message.getAttempts() + 1;
+      message.setAttempts(attempts);
+      message.setLastError(truncate(failure.getMessage()));
+      if (attempts >= maxAttempts) {
+        message.setStatus(EmailOutboxMessage.Status.DEAD);
+        dead.increment();
+        log.error("Giving up on verification email {} to {} after {} attempts", message.getId(),
+            message.getRecipient(), attempts, failure);
+      } else {
+        message.setNextAttemptAt(now.plus(backoff(attempts)));
+        retried.increment();
+        log.warn("Verification email {} failed (attempt {}), retrying at {}: {}", message.getId(), attempts,
+            message.getNextAttemptAt(), failure.getMessage());
+      }
+      failed.add(message);
+    }
+
+    transaction.executeWithoutResult(status -> {
+      if (!delivered.isEmpty()) outboxRepository.deleteAllByIdInBatch(delivered);
+      if (!failed.isEmpty()) outboxRepository.saveAll(failed);
+    });
+    sent.add(delivered.size());
+  }
+
+  /** initial-backoff doubled per attempt, capped at max-backoff, with up to 20% jitter. */
+  Duration backoff(int attempts) {
+    long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+    long capped = Math.min(base <= 0 ? Long.MAX_VALUE : base, maxBackoff.toMillis());
+    long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+    return Duration.ofMillis(capped - jitter);
+  }
+
+  private static String truncate(String error) {
+    if (error == null || error.length() <= MAX_ERROR_LENGTH) return error;
+    return error.substring(0, MAX_ERROR_LENGTH);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("email.outbox.sent", sent, LongAdder::sum)
+        .register(registry);
+    FunctionCounter.builder("email.outbox.retried", retried, LongAdder::sum)
+        .register(registry);
+    FunctionCounter.builder("email.outbox.dead", dead, LongAdder::sum)
+        .register(registry);
+  }
+}
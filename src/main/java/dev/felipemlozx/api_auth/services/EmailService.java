@@ -1,40 +1,74 @@
 package dev.felipemlozx.api_auth.services;
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeUtility;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 
 @Service
 public class EmailService {
 
+  static final String VERIFICATION_TEMPLATE = "email-template-register";
+  static final List<String> VERIFICATION_VARIABLES = List.of("userName", "verificationLink");
+
+  private static final String VERIFICATION_SUBJECT = "Confirm your e-mail";
+  private static final String HTML_CONTENT_TYPE = "text/html; charset=UTF-8";
+  // the template is not ASCII, so the body always ends up quoted-printable; naming it up front
+  // saves JavaMail from scanning every body to pick an encoding
+  private static final String TRANSFER_ENCODING = "quoted-printable";
+
   private final JavaMailSender mailSender;
   private final TemplateEngine templateEngine;
+  private final String encodedSubject;
+  private volatile PrecompiledTemplate verificationTemplate;
 
   public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
     this.mailSender = mailSender;
     this.templateEngine = templateEngine;
+    try {
+      this.encodedSubject = MimeUtility.fold(9, MimeUtility.encodeText(VERIFICATION_SUBJECT,
+          StandardCharsets.UTF_8.name(), null));
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
   }
-  @Async
-  public void sendEmail(String to, String name, String link) throws MessagingException {
-     MimeMessage mimeMessage = mailSender.createMimeMessage();
-     MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true);
 
-     messageHelper.setTo(to);
-     messageHelper.setSubject("Confirm your e-mail");
-
-     Context context = new Context();
-     context.setVariable("verificationLink", link);
-     context.setVariable("userName", name);
+  /**
+   * Builds the single-part HTML verification email. The template is split once into static segments
+   * (see {@link PrecompiledTemplate}), so only the recipient's name and link are rendered here.
+   */
+  public MimeMessage buildVerificationEmail(String to, String name, String link) throws MessagingException {
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+    mimeMessage.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(to));
+    mimeMessage.setHeader("Subject", encodedSubject);
+    mimeMessage.setContent(verificationTemplate().render(name, link), HTML_CONTENT_TYPE);
+    mimeMessage.setHeader("Content-Transfer-Encoding", TRANSFER_ENCODING);
+    return mimeMessage;
+  }
 
-     String htmlContent = templateEngine.process("email-template-register", context);
-     messageHelper.setText(htmlContent, true);
+  /**
+   * Sends the messages over a single SMTP connection. A {@link org.springframework.mail.MailSendException}
+   * lists in {@code getFailedMessages()} the ones that were not accepted.
+   */
+  public void send(List<MimeMessage> messages) {
+    mailSender.send(messages.toArray(MimeMessage[]::new));
+  }
 
-     mailSender.send(mimeMessage);
+  private PrecompiledTemplate verificationTemplate() {
+    PrecompiledTemplate template = verificationTemplate;
+    if (template == null) {
+      // compiled on first use; two threads racing here just compile it twice
+      template = PrecompiledTemplate.compile(templateEngine, VERIFICATION_TEMPLATE, VERIFICATION_VARIABLES);
+      verificationTemplate = template;
+    }
+    return template;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package dev.felipemlozx.api_auth.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.unbescape.html.HtmlEscape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A Thymeleaf template run through the engine once, with a marker in place of each variable, and
+ * split around the markers. Rendering for a recipient is then joining the static segments with the
+ * variable values, HTML-escaped the way {@code th:text} and {@code th:href} escape them, instead of
+ * walking the template again.
+ *
+ * <p>Only fits templates whose variables are just printed. A variable used in a condition, a loop
+ * or an expression would be frozen at its marker value; if a marker does not come out of the engine
+ * verbatim the template is not split and every render goes through the engine.
+ */
+final class PrecompiledTemplate {
+
+  private static final Logger log = LoggerFactory.getLogger(PrecompiledTemplate.class);
+  private static final Pattern MARKER = Pattern.compile("__precompiled_(\\d+)__");
+
+  private final TemplateEngine templateEngine;
+  private final String template;
+  private final List<String> variables;
+
+  // null when the template could not be split
+  private final String[] segments;
+  private final int[] slots;
+  private final int staticLength;
+
+  private PrecompiledTemplate(TemplateEngine templateEngine, String template, List<String> variables,
+                              String[] segments, int[] slots) {
+    this.templateEngine = templateEngine;
+    this.template = template;
+    this.variables = variables;
+    this.segments = segments;
+    this.slots = slots;
+    int length = 0;
+    if (segments != null) {
+      for (String segment : segments) length += segment.length();
+    }
+    this.staticLength = length;
+  }
+
+  static PrecompiledTemplate compile(TemplateEngine templateEngine, String template, List<String> variables) {
+    Context context = new Context();
+    for (int i = 0; i < variables.size(); i++) {
+      context.setVariable(variables.get(i), marker(i));
+    }
+    String rendered = templateEngine.process(template, context);
+
+    List<String> segments = new ArrayList<>();
+    List<Integer> slots = new ArrayList<>();
+    boolean[] seen = new boolean[variables.size()];
+    Matcher matcher = MARKER.matcher(rendered == null ? "" : rendered);
+    int start = 0;
+    while (matcher.find()) {
+      int slot = Integer.parseInt(matcher.group(1));
+      if (slot >= variables.size()) continue;
+      segments.add(rendered.substring(start, matcher.start()));
+      slots.add(slot);
+      seen[slot] = true;
+      start = matcher.end();
+    }
+    for (int i = 0; i < seen.length; i++) {
+      if (!seen[i]) {
+        log.warn("Variable '{}' of template '{}' is not printed verbatim, rendering it with the engine every time",
+            variables.get(i), template);
+        return new PrecompiledTemplate(templateEngine, template, variables, null, null);
+      }
+    }
+    segments.add(rendered.substring(start));
+    return new PrecompiledTemplate(templateEngine, template, variables, segments.toArray(String[]::new),
+        slots.stream().mapToInt(Integer::intValue).toArray());
+  }
+
+  /** Renders the template with {@code values} given in the order of the variables it was compiled with. */
+  String render(String... values) {
+    if (values.length != variables.size()) {
+      throw new IllegalArgumentException("Template '" + template + "' takes " + variables.size() + " values");
+    }
+    if (segments == null) {
+      Context context = new Context();
+      for (int i = 0; i < values.length; i++) {
+        context.setVariable(variables.get(i), values[i]);
+      }
+      return templateEngine.process(template, context);
+    }
+
+    String[] escaped = new String[values.length];
+    int length = staticLength;
+    for (int slot : slots) {
+      if (escaped[slot] == null) escaped[slot] = values[slot] == null ? "" : HtmlEscape.escapeHtml4Xml(values[slot]);
+      length += escaped[slot].length();
+    }
+    StringBuilder html = new StringBuilder(length);
+    for (int i = 0; i < slots.length; i++) {
+      html.append(segments[i]).append(escaped[slots[i]]);
+    }
+    return html.append(segments[segments.length - 1]).toString();
+  }
+
+  boolean isSplit() {
+    return segments != null;
+  }
+
+  private static String marker(int slot) {
+    return "__precompiled_" + slot + "__";
+  }
+}
@@ -0,0 +1,46 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.infra.config.RedisJobLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Triggers the unverified-user purge. Every replica polls, but {@link RedisJobLease} lets only one
+ * of them run the purge per interval and hands it over if that replica dies mid-run.
+ */
+@Component
+public class UserCleanupJob {
+
+  private static final Logger log = LoggerFactory.getLogger(UserCleanupJob.class);
+  static final String JOB_NAME = "purge-unverified-users";
+
+  private final UserService userService;
+  private final RedisJobLease jobLease;
+  private final EmailBloomFilterLoader emailBloomFilterLoader;
+  private final Duration interval;
+
+  public UserCleanupJob(UserService userService, RedisJobLease jobLease, EmailBloomFilterLoader emailBloomFilterLoader,
+                        @Value("${api.cleanup.interval:1800000}") long intervalMillis) {
+    this.userService = userService;
+    this.jobLease = jobLease;
+    this.emailBloomFilterLoader = emailBloomFilterLoader;
+    this.interval = Duration.ofMillis(intervalMillis);
+  }
+
+  @Scheduled(fixedDelayString = "${api.cleanup.poll-interval:60000}")
+  public void purgeUnverifiedUsers() {
+    try {
+      jobLease.runIfDue(JOB_NAME, interval, userService::deleteUserNotVerify);
+    } catch (DataAccessException e) {
+      log.warn("Skipping {} this round: {}", JOB_NAME, e.getMessage());
+    }
+    // every poll, not just after a purge: a replica that failed to add an email must get it rebuilt
+    emailBloomFilterLoader.rebuildIfStale();
+  }
+}
@@ -0,0 +1,240 @@
+package dev.felipemlozx.api_auth.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.felipemlozx.api_auth.dto.CreateUserDTO;
+import dev.felipemlozx.api_auth.dto.ImportRowErrorDTO;
+import dev.felipemlozx.api_auth.dto.ImportSummaryDTO;
+import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.bloom.EmailBloomFilter;
+import dev.felipemlozx.api_auth.infra.config.ReplicaRoutingDataSource;
+import dev.felipemlozx.api_auth.repository.UserRepository;
+import dev.felipemlozx.api_auth.utils.CheckUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Bulk user import for onboarding. Rows are read one at a time and handled in chunks: validated
+ * with {@link CheckUtils}, checked against existing emails with one query per chunk, hashed on a
+ * dedicated pool and inserted in one transaction as JDBC batches. Only the current chunk is ever in
+ * memory and every rejected row is reported through the error callback as soon as it is known.
+ *
+ * <p>Imported users are created already verified and no verification email is sent: the customer
+ * vouches for the addresses, and unverified rows would be purged before anyone could verify them.
+ */
+@Service
+public class UserImportService {
+
+  private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+  public enum Format { CSV, NDJSON }
+
+  private final UserRepository userRepository;
+  private final PasswordEncoder passwordEncoder;
+  private final EmailBloomFilter registeredEmails;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transaction;
+  private final ExecutorService hashingPool;
+  private final int chunkSize;
+
+  public UserImportService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           EmailBloomFilter registeredEmails, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${api.import.hashing-threads:0}") int hashingThreads,
+                           @Value("${api.import.chunk-size:500}") int chunkSize) {
+    this.userRepository = userRepository;
+    this.passwordEncoder = passwordEncoder;
+    this.registeredEmails = registeredEmails;
+    this.objectMapper = objectMapper;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+    // half the cores by default: the rest stay with PasswordHashingExecutor, so logins and sign-ups
+    // keep hashing while an import runs
+    int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "user-import-hashing-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public ImportSummaryDTO importUsers(BufferedReader reader, Format format, Consumer<ImportRowErrorDTO> onError)
+      throws IOException {
+    long start = System.nanoTime();
+    ImportCounters counters = new ImportCounters(onError);
+    List<Row> chunk = new ArrayList<>(chunkSize);
+    long lineNumber = 0;
+    String line;
+    while ((line = reader.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank() || (lineNumber == 1 && format == Format.CSV && isCsvHeader(line))) continue;
+      Row row = parse(lineNumber, line, format, counters);
+      if (row == null) continue;
+      chunk.add(row);
+      if (chunk.size() == chunkSize) {
+        importChunk(chunk, counters);
+        chunk.clear();
+      }
+    }
+    if (!chunk.isEmpty()) importChunk(chunk, counters);
+
+    long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+    log.info("Imported {} users ({} rejected) in {} ms", counters.imported, counters.failed, elapsedMs);
+    return new ImportSummaryDTO(counters.imported, counters.failed, elapsedMs);
+  }
+
+  private Row parse(long lineNumber, String line, Format format, ImportCounters counters) {
+    CreateUserDTO dto;
+    if (format == Format.NDJSON) {
+      try {
+        dto = objectMapper.readValue(line, CreateUserDTO.class);
+      } catch (JsonProcessingException e) {
+        counters.reject(lineNumber, null, List.of("Malformed JSON"));
+        return null;
+      }
+    } else {
+      List<String> fields = parseCsvLine(line);
+      if (fields.size() != 3) {
+        counters.reject(lineNumber, null, List.of("Expected 3 columns: name,email,password"));
+        return null;
+      }
+      dto = new CreateUserDTO(fields.get(0), fields.get(1), fields.get(2));
+    }
+    if (dto.email() == null || dto.password() == null || dto.name() == null || dto.name().isBlank()) {
+      counters.reject(lineNumber, dto.email(), List.of("name, email and password are required"));
+      return null;
+    }
+    List<String> errors = CheckUtils.validatePasswordAndEmail(dto.password(), dto.email());
+    if (!errors.isEmpty()) {
+      counters.reject(lineNumber, dto.email(), errors);
+      return null;
+    }
+    return new Row(lineNumber, dto);
+  }
+
+  private void importChunk(List<Row> chunk, ImportCounters counters) {
+    // the primary, so rows committed by the previous chunk count as existing
+    Set<String> existing = ReplicaRoutingDataSource.onPrimary(() ->
+        userRepository.findExistingEmails(chunk.stream().map(row -> row.user().normalizedEmail()).toList()));
+    Set<String> seen = new HashSet<>();
+    List<Row> accepted = new ArrayList<>(chunk.size());
+    for (Row row : chunk) {
+      String email = row.user().normalizedEmail();
+      if (existing.contains(email)) counters.reject(row.line(), row.user().email(), List.of("Email already exists"));
+      else if (!seen.add(email)) counters.reject(row.line(), row.user().email(), List.of("Duplicate email in file"));
+      else accepted.add(row);
+    }
+    if (accepted.isEmpty()) return;
+
+    List<CompletableFuture<String>> hashes = accepted.stream()
+        .map(row -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.user().password()), hashingPool))
+        .toList();
+    List<User> users = new ArrayList<>(accepted.size());
+    for (int i = 0; i < accepted.size(); i++) {
+      users.add(newUser(accepted.get(i).user(), hashes.get(i).join()));
+    }
+
+    try {
+      transaction.executeWithoutResult(status -> userRepository.saveAll(users));
+      users.forEach(user -> registeredEmails.put(user.getEmailNormalized()));
+      counters.imported += users.size();
+    } catch (DataIntegrityViolationException e) {
+      if (!UserRepository.isDuplicateEmail(e)) throw e;
+      // someone registered one of these emails since the check; isolate it row by row
+      for (int i = 0; i < accepted.size(); i++) {
+        insertSingle(accepted.get(i), users.get(i), counters);
+      }
+    }
+  }
+
+  private void insertSingle(Row row, User failedBatchUser, ImportCounters counters) {
+    User user = newUser(row.user(), failedBatchUser.getPassword());
+    try {
+      userRepository.saveAndFlush(user);
+      registeredEmails.put(user.getEmailNormalized());
+      counters.imported++;
+    } catch (DataIntegrityViolationException e) {
+      if (!UserRepository.isDuplicateEmail(e)) throw e;
+      counters.reject(row.line(), user.getEmail(), List.of("Email already exists"));
+    }
+  }
+
+  private static User newUser(CreateUserDTO dto, String passwordHash) {
+    return new User(dto.name(), dto.email(), passwordHash, true);
+  }
+
+  private static boolean isCsvHeader(String line) {
+    return line.replace(" ", "").equalsIgnoreCase("name,email,password");
+  }
+
+  /** RFC 4180 fields: comma separated, optionally double-quoted with "" as an escaped quote. */
+  static List<String> parseCsvLine(String line) {
+    List<String> fields = new ArrayList<>(3);
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else if (c == '"') {
+          quoted = false;
+        } else {
+          field.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    hashingPool.shutdownNow();
+  }
+
+  private record Row(long line, CreateUserDTO user) { }
+
+  private static final class ImportCounters {
+    private final Consumer<ImportRowErrorDTO> onError;
+    private long imported;
+    private long failed;
+
+    private ImportCounters(Consumer<ImportRowErrorDTO> onError) {
+      this.onError = onError;
+    }
+
+    private void reject(long line, String email, List<String> errors) {
+      failed++;
+      onError.accept(new ImportRowErrorDTO(line, email, errors));
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.dto.UserSummaryDTO;
+import dev.felipemlozx.api_auth.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Admin listing/export of users. Pages are fetched by keyset ({@code id > last id seen}) so every
+ * page costs the same index range scan no matter how deep the export is, and each page is a short
+ * read-only transaction (served by a replica when one is configured) instead of one long cursor.
+ */
+@Service
+public class UserListingService {
+
+  private final UserRepository userRepository;
+  private final int pageSize;
+
+  public UserListingService(UserRepository userRepository,
+                            @Value("${api.admin.listing.page-size:1000}") int pageSize) {
+    this.userRepository = userRepository;
+    this.pageSize = pageSize;
+  }
+
+  public record Filter(Boolean verified, Instant timeVerifyFrom, Instant timeVerifyTo) { }
+
+  @FunctionalInterface
+  public interface PageConsumer {
+    void accept(List<UserSummaryDTO> page) throws IOException;
+  }
+
+  /**
+   * Hands every user after {@code afterId} matching the filter to {@code consumer}, one page at a
+   * time, stopping after {@code limit} users when it is positive. Returns the number of users listed.
+   */
+  public long forEachPage(Filter filter, long afterId, long limit, PageConsumer consumer) throws IOException {
+    long listed = 0;
+    long cursor = afterId;
+    while (limit <= 0 || listed < limit) {
+      int size = limit <= 0 ? pageSize : (int) Math.min(pageSize, limit - listed);
+      List<UserSummaryDTO> page = userRepository.findPageAfter(
+          cursor, filter.verified(), filter.timeVerifyFrom(), filter.timeVerifyTo(), PageRequest.ofSize(size));
+      if (page.isEmpty()) break;
+      consumer.accept(page);
+      listed += page.size();
+      cursor = page.get(page.size() - 1).id();
+      if (page.size() < size) break;
+    }
+    return listed;
+  }
+}
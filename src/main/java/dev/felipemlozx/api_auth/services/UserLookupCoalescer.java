@@ -0,0 +1,49 @@
+package dev.felipemlozx.api_auth.services;
+
+import dev.felipemlozx.api_auth.dto.UserCredentialsDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.utils.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer in front of the hot {@code UserRepository} lookups, so a burst of logins or
+ * refreshes for the same user costs one query. A caller that just wrote the user must not join a
+ * flight that may have started before its write; UserService reads those directly.
+ */
+@Component
+public class UserLookupCoalescer implements MeterBinder {
+
+  private final SingleFlight<String, Optional<UserCredentialsDTO>> credentialsByEmail = new SingleFlight<>();
+  private final SingleFlight<Long, Optional<UserJwtDTO>> jwtUserById = new SingleFlight<>();
+
+  public Optional<UserCredentialsDTO> credentialsByEmail(String email, Supplier<Optional<UserCredentialsDTO>> query) {
+    return credentialsByEmail.execute(email, query);
+  }
+
+  public Optional<UserJwtDTO> jwtUserById(Long id, Supplier<Optional<UserJwtDTO>> query) {
+    return jwtUserById.execute(id, query);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bind(registry, "credentials-by-email", credentialsByEmail);
+    bind(registry, "jwt-user-by-id", jwtUserById);
+  }
+
+  private static void bind(MeterRegistry registry, String lookup, SingleFlight<?, ?> flight) {
+    FunctionCounter.builder("user.lookup.calls", flight, SingleFlight::executedCount)
+        .description("User lookups that reached the database")
+        .tags("lookup", lookup, "result", "executed")
+        .register(registry);
+    FunctionCounter.builder("user.lookup.calls", flight, SingleFlight::coalescedCount)
+        .description("User lookups that shared an in-flight query")
+        .tags("lookup", lookup, "result", "coalesced")
+        .register(registry);
+  }
+}
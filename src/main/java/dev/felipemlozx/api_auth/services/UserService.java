@@ -4,126 +4,199 @@ import dev.felipemlozx.api_auth.core.AuthCheckFailure;
 import dev.felipemlozx.api_auth.core.AuthCheckResult;
 import dev.felipemlozx.api_auth.core.AuthCheckSuccess;
 import dev.felipemlozx.api_auth.core.AuthError;
+import dev.felipemlozx.api_auth.core.PurgeResult;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
+import dev.felipemlozx.api_auth.dto.UnverifiedUserDTO;
+import dev.felipemlozx.api_auth.dto.UserCredentialsDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
 import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.bloom.EmailBloomFilter;
+import dev.felipemlozx.api_auth.infra.config.ReadYourWritesTracker;
+import dev.felipemlozx.api_auth.infra.config.ReplicaRoutingDataSource;
+import dev.felipemlozx.api_auth.infra.config.UserSnapshotCache;
+import dev.felipemlozx.api_auth.infra.config.VerificationTokenStore;
+import dev.felipemlozx.api_auth.infra.security.PasswordHashingExecutor;
 import dev.felipemlozx.api_auth.repository.UserRepository;
 import dev.felipemlozx.api_auth.utils.CheckUtils;
-import jakarta.transaction.Transactional;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
-import org.springframework.scheduling.annotation.Scheduled;
+import dev.felipemlozx.api_auth.utils.EmailNormalizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class UserService {
 
+  private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
   private final UserRepository userRepository;
   private final PasswordEncoder passwordEncoder;
-  private final CacheManager cacheManager;
-
-  public UserService(UserRepository userRepository, PasswordEncoder encoder,  CacheManager cacheManager) {
+  private final VerificationTokenStore verificationTokens;
+  private final PasswordHashingExecutor passwordHashingExecutor;
+  private final ReadYourWritesTracker readYourWrites;
+  private final UserSnapshotCache userSnapshots;
+  private final UserLookupCoalescer lookups;
+  private final EmailBloomFilter registeredEmails;
+  private final TransactionTemplate transaction;
+
+  @Value("${api.cleanup.batch-size:500}")
+  private int purgeBatchSize = 500;
+
+  public UserService(UserRepository userRepository, PasswordEncoder encoder,  VerificationTokenStore verificationTokens,
+                     PasswordHashingExecutor passwordHashingExecutor, ReadYourWritesTracker readYourWrites,
+                     UserSnapshotCache userSnapshots, UserLookupCoalescer lookups,
+                     EmailBloomFilter registeredEmails, PlatformTransactionManager transactionManager) {
     this.userRepository = userRepository;
     this.passwordEncoder = encoder;
-    this.cacheManager = cacheManager;
+    this.verificationTokens = verificationTokens;
+    this.passwordHashingExecutor = passwordHashingExecutor;
+    this.readYourWrites = readYourWrites;
+    this.userSnapshots = userSnapshots;
+    this.lookups = lookups;
+    this.registeredEmails = registeredEmails;
+    this.transaction = new TransactionTemplate(transactionManager);
   }
 
-  @Transactional
   public List<String> register(CreateUserDTO userDto) {
-    List<String> errors = CheckUtils.validatePasswordAndEmail(userDto.password(), userDto.email());
-
-    boolean userExist = userRepository.existsByEmail(userDto.email());
-    if(userExist) errors.add("Email already exists");
+    return register(userDto, user -> { });
+  }
 
-    if (errors.isEmpty()) {
-      User user = new User();
-      user.setName(userDto.name());
-      user.setEmail(userDto.email());
-      user.setPassword(passwordEncoder.encode(userDto.password()));
-      userRepository.save(user);
+  /**
+   * Creates the user and runs {@code inTransaction} in the same transaction, so whatever it writes
+   * (the verification email in the outbox) is committed together with the user or not at all.
+   */
+  public List<String> register(CreateUserDTO userDto, Consumer<User> inTransaction) {
+    List<String> errors = CheckUtils.validatePasswordAndEmail(userDto.password(), userDto.email());
+    if (!errors.isEmpty()) return errors;
+
+    User user = new User();
+    user.setName(userDto.name());
+    user.setEmail(userDto.email());
+    // same bounded pool as login, so a sign-up flood queues behind it instead of taking request threads
+    user.setPassword(passwordHashingExecutor.submit(() -> passwordEncoder.encode(userDto.password())));
+    try {
+      transaction.executeWithoutResult(status -> {
+        // the unique index on the normalized email decides races between concurrent sign-ups in one round trip
+        userRepository.saveAndFlush(user);
+        inTransaction.accept(user);
+      });
+      registeredEmails.put(user.getEmailNormalized());
+      readYourWrites.markWritten(user.getEmailNormalized());
+    } catch (DataIntegrityViolationException e) {
+      if (!UserRepository.isDuplicateEmail(e)) throw e;
+      errors.add("Email already exists");
     }
     return errors;
   }
 
   public AuthCheckResult login(LoginDTO userLogin) {
-    Optional<User> maybeUser = userRepository.findByEmail(userLogin.email());
+    String email = userLogin.normalizedEmail();
+    if (!registeredEmails.mightContain(email)) return new AuthCheckFailure(AuthError.USER_NOT_REGISTER);
+    // after a recent write (sign-up, verification) a shared lookup may have started before it, so read alone
+    Optional<UserCredentialsDTO> maybeUser = readYourWrites.writtenRecently(email)
+        ? ReplicaRoutingDataSource.onPrimary(() -> userRepository.findCredentialsByEmail(email))
+        : lookups.credentialsByEmail(email, () -> userRepository.findCredentialsByEmail(email));
 
     if(maybeUser.isEmpty()) return new AuthCheckFailure(AuthError.USER_NOT_REGISTER);
-    User user = maybeUser.get();
+    UserCredentialsDTO user = maybeUser.get();
 
-    if(!user.isVerified()) return new AuthCheckFailure(AuthError.EMAIL_NOT_VERIFIED);
+    if(!user.verified()) return new AuthCheckFailure(AuthError.EMAIL_NOT_VERIFIED);
 
-    boolean matches = passwordEncoder.matches(userLogin.password(), user.getPassword());
+    PasswordCheck check = passwordHashingExecutor.submit(() -> checkPassword(userLogin.password(), user.password()));
 
-    if (!matches) {
+    if (!check.matches()) {
       return new AuthCheckFailure(AuthError.INVALID_CREDENTIALS);
     }
+    if (check.upgradedHash() != null) {
+      userRepository.updatePassword(user.id(), check.upgradedHash());
+    }
 
-    return new AuthCheckSuccess(user);
+    return new AuthCheckSuccess(user.toJwtUser());
+  }
+
+  private PasswordCheck checkPassword(String rawPassword, String storedHash) {
+    if (!passwordEncoder.matches(rawPassword, storedHash)) return new PasswordCheck(false, null);
+    if (!passwordEncoder.upgradeEncoding(storedHash)) return new PasswordCheck(true, null);
+    return new PasswordCheck(true, passwordEncoder.encode(rawPassword));
   }
 
   public String createEmailVerificationToken(String email) {
-    Optional<User> maybeUser = userRepository.findByEmail(email);
-    if(maybeUser.isEmpty()) return null;
+    Optional<User> maybeUser = findByEmail(email);
+    return maybeUser.map(this::createEmailVerificationToken).orElse(null);
+  }
 
-    UUID token = UUID.randomUUID();
-    saveToken(token.toString(), email);
-    return token.toString();
+  /**
+   * The user's live verification token, or a new one when there is none, so a resend links to the
+   * same token as the first email. It expires when the user's verification window closes.
+   */
+  public String createEmailVerificationToken(User user) {
+    Instant deadline = user.getTimeVerify() != null ? user.getTimeVerify() : Instant.now().plus(User.VERIFICATION_WINDOW);
+    return verificationTokens.issue(user.getEmailNormalized(), Duration.between(Instant.now(), deadline));
   }
 
+  /** Tokens are single use: the first call consumes it, even if the window has closed meanwhile. */
   public Boolean verifyEmailToken(String token) {
-    String email = recoverToken(token);
+    String email = verificationTokens.consume(token);
     if(email == null) return false;
 
-    Optional<User> maybeUser = userRepository.findByEmail(email);
-    if(maybeUser.isEmpty()) return false;
-    User user = maybeUser.get();
-
-    boolean isValid = Instant.now().isBefore(user.getTimeVerify());
-    if(!isValid){
-      return false;
-    }
-
-    user.setVerified(true);
-    userRepository.save(user);
-    return true;
+    boolean verified = userRepository.markVerified(email, Instant.now()) > 0;
+    if (verified) readYourWrites.markWritten(email);
+    return verified;
   }
 
   public Optional<User> findByEmail(String email) {
-    return userRepository.findByEmail(email);
+    String normalized = EmailNormalizer.normalize(email);
+    if (!registeredEmails.mightContain(normalized)) return Optional.empty();
+    return readYourWrites.read(normalized, () -> userRepository.findByEmailNormalized(normalized));
   }
 
-  // 30 minutos em milissegundos
-  @Scheduled(fixedRate = 1800000)
-  public void deleteUserNotVerify() {
-    List<User> userList = userRepository.findByVerifiedIsFalse();
-    Instant now = Instant.now();
-    for(User user : userList){
-      boolean isValid = now.isBefore(user.getTimeVerify());
-      if(!isValid) userRepository.delete(user);
-    }
+  // disparado pelo UserCleanupJob, no máximo uma vez por intervalo no cluster
+  public PurgeResult deleteUserNotVerify() {
+    // the page query must see the rows the previous batch just deleted, so it never reads a replica
+    return ReplicaRoutingDataSource.onPrimary(this::purgeExpiredUsers);
   }
 
-  public User findById(Long id){
-    return userRepository.findById(id)
-        .orElseThrow(() -> new RuntimeException("User not found."));
+  private PurgeResult purgeExpiredUsers() {
+    long start = System.nanoTime();
+    Instant now = Instant.now();
+    int purged = 0;
+    int batches = 0;
+    List<UnverifiedUserDTO> batch;
+    do {
+      // each page is deleted before the next is read, so the first page is always the next chunk
+      batch = userRepository.findExpiredUnverified(now, PageRequest.ofSize(purgeBatchSize));
+      if (batch.isEmpty()) break;
+      List<Long> ids = batch.stream().map(UnverifiedUserDTO::id).toList();
+      userRepository.deleteAllByIdInBatch(ids);
+      userSnapshots.invalidateAll(ids);
+      verificationTokens.revokeAll(batch.stream().map(UnverifiedUserDTO::email).toList());
+      purged += batch.size();
+      batches++;
+    } while (batch.size() == purgeBatchSize);
+
+    registeredEmails.recordRemovals(purged);
+    PurgeResult result = new PurgeResult(purged, batches, Duration.ofNanos(System.nanoTime() - start));
+    log.info("Purged {} expired unverified users in {} batches ({} ms)", result.purged(), result.batches(), result.elapsed().toMillis());
+    return result;
   }
 
-  public void saveToken(String token, String email) {
-    Cache cache = cacheManager.getCache("EmailVerificationTokens");
-    if (cache != null) cache.put(token, email);
-  }
 
-  public String recoverToken(String token) {
-    Cache cache = cacheManager.getCache("EmailVerificationTokens");
-    if (cache == null) return null;
-    Cache.ValueWrapper wrapper = cache.get(token);
-    return wrapper != null ? (String) wrapper.get() : null;
+  public UserJwtDTO findJwtUserById(Long id){
+    return userSnapshots.get(id, key -> lookups.jwtUserById(key, () -> userRepository.findJwtUserById(key)))
+        .orElseThrow(() -> new RuntimeException("User not found."));
   }
-}
\ No newline at end of file
+
+  private record PasswordCheck(boolean matches, String upgradedHash) { }
+}
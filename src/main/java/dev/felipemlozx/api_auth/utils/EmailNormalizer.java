@@ -0,0 +1,16 @@
+package dev.felipemlozx.api_auth.utils;
+
+import java.util.Locale;
+
+/**
+ * Canonical form of an email used as the account identity: surrounding whitespace removed and
+ * lower-cased with the root locale, so {@code Foo@X.com} and {@code foo@x.com} are one account.
+ * The address as typed is still kept for display and for sending mail.
+ */
+public class EmailNormalizer {
+  private EmailNormalizer(){}
+
+  public static String normalize(String email) {
+    return email == null ? null : email.strip().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,11 @@
+create table tb_user (
+    id          bigint       not null primary key,
+    name        varchar(255),
+    email       varchar(255),
+    password    varchar(255),
+    time_verify timestamp(6) with time zone,
+    verified    boolean      not null,
+    constraint uk_tb_user_email unique (email)
+);
+
+create sequence tb_user_seq start with 1 increment by 50;
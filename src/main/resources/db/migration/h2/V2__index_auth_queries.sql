@@ -0,0 +1,2 @@
+-- Expired-unverified purge: verified = false and time_verify < ? order by time_verify.
+create index idx_user_verified_time_verify on tb_user (verified, time_verify);
@@ -0,0 +1,8 @@
+-- Account identity becomes the lower-cased, trimmed email; the address as typed stays in email.
+alter table tb_user add column email_normalized varchar(255);
+
+update tb_user set email_normalized = lower(trim(email));
+
+alter table tb_user alter column email_normalized set not null;
+alter table tb_user add constraint uk_tb_user_email_normalized unique (email_normalized);
+alter table tb_user drop constraint uk_tb_user_email;
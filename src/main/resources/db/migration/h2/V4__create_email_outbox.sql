@@ -0,0 +1,15 @@
+create table tb_email_outbox (
+    id              bigint       not null primary key,
+    recipient       varchar(255),
+    recipient_name  varchar(255),
+    link            varchar(1024),
+    status          varchar(16)  not null,
+    attempts        integer      not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    created_at      timestamp(6) with time zone not null,
+    last_error      varchar(1000)
+);
+
+create index idx_email_outbox_due on tb_email_outbox (status, next_attempt_at);
+
+create sequence tb_email_outbox_seq start with 1 increment by 50;
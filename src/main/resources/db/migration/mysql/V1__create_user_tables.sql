@@ -0,0 +1,20 @@
+-- Schema previously generated by ddl-auto; "if not exists" lets databases created that way adopt it.
+create table if not exists tb_user (
+    id          bigint       not null,
+    name        varchar(255),
+    email       varchar(255),
+    password    varchar(255),
+    time_verify datetime(6),
+    verified    bit          not null,
+    primary key (id),
+    constraint uk_tb_user_email unique (email)
+) engine = InnoDB;
+
+-- Hibernate's table-backed sequence for User ids (pooled, 50 per call). Re-seeded above the
+-- highest existing id so databases that used IDENTITY ids keep working.
+create table if not exists tb_user_seq (
+    next_val bigint
+) engine = InnoDB;
+
+delete from tb_user_seq;
+insert into tb_user_seq (next_val) select coalesce(max(id), 0) + 51 from tb_user;
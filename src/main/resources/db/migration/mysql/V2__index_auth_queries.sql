@@ -0,0 +1,14 @@
+-- Expired-unverified purge: verified = false and time_verify < ? order by time_verify.
+-- Older databases may already have it from ddl-auto, so it is only created when missing.
+set @ddl = (
+    select if(count(*) = 0,
+              'create index idx_user_verified_time_verify on tb_user (verified, time_verify)',
+              'do 0')
+    from information_schema.statistics
+    where table_schema = database()
+      and table_name = 'tb_user'
+      and index_name = 'idx_user_verified_time_verify'
+);
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,23 @@
+-- Account identity becomes the lower-cased, trimmed email; the address as typed stays in email.
+-- Fails on the unique key if two existing accounts differ only by case: merge them first.
+alter table tb_user add column email_normalized varchar(255) null after email;
+
+update tb_user set email_normalized = lower(trim(email));
+
+alter table tb_user
+    modify email_normalized varchar(255) not null,
+    add constraint uk_tb_user_email_normalized unique (email_normalized);
+
+-- The unique key on the raw email is now redundant. Databases that predate the migrations have it
+-- under a generated name, so it is looked up rather than dropped by name.
+set @ddl = (
+    select coalesce(concat('alter table tb_user drop index ', max(index_name)), 'do 0')
+    from information_schema.statistics
+    where table_schema = database()
+      and table_name = 'tb_user'
+      and column_name = 'email'
+      and non_unique = 0
+);
+prepare stmt from @ddl;
+execute stmt;
+deallocate prepare stmt;
@@ -0,0 +1,22 @@
+-- Verification emails written in the user's transaction and drained by EmailOutboxDispatcher.
+create table tb_email_outbox (
+    id              bigint       not null,
+    recipient       varchar(255),
+    recipient_name  varchar(255),
+    link            varchar(1024),
+    status          varchar(16)  not null,
+    attempts        integer      not null,
+    next_attempt_at datetime(6)  not null,
+    created_at      datetime(6)  not null,
+    last_error      varchar(1000),
+    primary key (id)
+) engine = InnoDB;
+
+-- The dispatcher's claim: status = 'PENDING' and next_attempt_at <= ? order by next_attempt_at
+create index idx_email_outbox_due on tb_email_outbox (status, next_attempt_at);
+
+create table tb_email_outbox_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into tb_email_outbox_seq (next_val) values (1);
@@ -0,0 +1,66 @@
+package dev.felipemlozx.api_auth.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.infra.security.AccessTokenVerifier;
+import dev.felipemlozx.api_auth.infra.security.KeyRing;
+import dev.felipemlozx.api_auth.infra.security.SigningKey;
+import dev.felipemlozx.api_auth.infra.security.TokenService;
+import dev.felipemlozx.api_auth.infra.security.VerifiedAccessToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request authentication through java-jwt (DecodedJWT + getClaim) against the
+ * {@link AccessTokenVerifier} fast path. Run with {@code -Djmh.args="-prof gc"} to get
+ * gc.alloc.rate.norm, the bytes allocated per verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenVerificationBenchmark {
+
+  private TokenService tokenService;
+  private AccessTokenVerifier verifier;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    KeyRing keyRing = new KeyRing(SigningKey.hmac("bench", "benchmark-secret", "API-auth"));
+    tokenService = new TokenService(keyRing);
+    verifier = new AccessTokenVerifier(keyRing, tokenService);
+    UserJwtDTO user = new UserJwtDTO(42L, "bench", "bench@gmail.com");
+    token = tokenService.generateToken(user);
+  }
+
+  @Benchmark
+  public void javaJwt(Blackhole blackhole) {
+    DecodedJWT decodedJWT = tokenService.validateToken(token);
+    String email = decodedJWT.getClaim("email").asString();
+    String name = decodedJWT.getClaim("name").asString();
+    Long id = decodedJWT.getClaim("id").asLong();
+    List<String> roles = decodedJWT.getClaim("roles").asList(String.class);
+    blackhole.consume(new UserJwtDTO(id, name, email));
+    blackhole.consume(roles);
+  }
+
+  @Benchmark
+  public VerifiedAccessToken fastPath() {
+    return verifier.verify(token);
+  }
+}
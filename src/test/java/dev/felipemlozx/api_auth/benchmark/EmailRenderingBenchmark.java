@@ -0,0 +1,87 @@
+package dev.felipemlozx.api_auth.benchmark;
+
+import dev.felipemlozx.api_auth.services.EmailService;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verification emails built and written out as they would go on the wire, per second: the old
+ * path (a {@code Context} and a full engine run per message, wrapped in a multipart message) against
+ * {@link EmailService}, which renders from the precompiled template into a single-part message.
+ * Nothing is sent; {@code writeTo} a null stream stands in for the SMTP DATA phase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderingBenchmark {
+
+  private static final String TEMPLATE = "email-template-register";
+
+  private final AtomicLong sequence = new AtomicLong();
+  private JavaMailSenderImpl mailSender;
+  private SpringTemplateEngine templateEngine;
+  private EmailService emailService;
+
+  @Setup
+  public void setUp() {
+    ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+    resolver.setPrefix("templates/");
+    resolver.setSuffix(".html");
+    resolver.setCharacterEncoding("UTF-8");
+    templateEngine = new SpringTemplateEngine();
+    templateEngine.setTemplateResolver(resolver);
+    mailSender = new JavaMailSenderImpl();
+    emailService = new EmailService(mailSender, templateEngine);
+  }
+
+  @Benchmark
+  public MimeMessage engineMultipart() throws Exception {
+    long n = sequence.incrementAndGet();
+    MimeMessage message = mailSender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message, true);
+    helper.setTo("user" + n + "@gmail.com");
+    helper.setSubject("Confirm your e-mail");
+    Context context = new Context();
+    context.setVariable("verificationLink", link(n));
+    context.setVariable("userName", "User " + n);
+    helper.setText(templateEngine.process(TEMPLATE, context), true);
+    return writeOut(message);
+  }
+
+  @Benchmark
+  public MimeMessage precompiled() throws Exception {
+    long n = sequence.incrementAndGet();
+    return writeOut(emailService.buildVerificationEmail("user" + n + "@gmail.com", "User " + n, link(n)));
+  }
+
+  private static String link(long n) {
+    return "http://localhost:8080/verify-email/" + Long.toHexString(n * 0x9E3779B97F4A7C15L);
+  }
+
+  private static MimeMessage writeOut(MimeMessage message) throws Exception {
+    message.saveChanges();
+    message.writeTo(OutputStream.nullOutputStream());
+    return message;
+  }
+}
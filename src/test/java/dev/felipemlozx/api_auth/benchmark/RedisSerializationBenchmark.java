@@ -0,0 +1,95 @@
+package dev.felipemlozx.api_auth.benchmark;
+
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.infra.config.RecordRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value serialization per operation: a plain email string through the cache manager's JSON
+ * serializer against raw UTF-8, and a {@link UserJwtDTO} snapshot through Jackson against
+ * {@link RecordRedisSerializer}. The bytes per entry of each format are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializationBenchmark {
+
+  private static final String EMAIL = "maria.fernanda.souza@gmail.com";
+  private static final UserJwtDTO USER = new UserJwtDTO(1048576L, "Maria Fernanda Souza", EMAIL);
+
+  private final RedisSerializer<Object> json = RedisSerializer.json();
+  private final RedisSerializer<String> string = RedisSerializer.string();
+  private final RedisSerializer<UserJwtDTO> userJson = new Jackson2JsonRedisSerializer<>(UserJwtDTO.class);
+  private final RedisSerializer<UserJwtDTO> userBinary = new RecordRedisSerializer<>(UserJwtDTO.class);
+
+  private byte[] emailJson;
+  private byte[] emailString;
+  private byte[] userJsonBytes;
+  private byte[] userBinaryBytes;
+
+  @Setup
+  public void setUp() {
+    emailJson = json.serialize(EMAIL);
+    emailString = string.serialize(EMAIL);
+    userJsonBytes = userJson.serialize(USER);
+    userBinaryBytes = userBinary.serialize(USER);
+    System.out.printf("%nbytes per entry: email json=%d string=%d, user json=%d binary=%d%n",
+        emailJson.length, emailString.length, userJsonBytes.length, userBinaryBytes.length);
+  }
+
+  @Benchmark
+  public byte[] emailSerializeJson() {
+    return json.serialize(EMAIL);
+  }
+
+  @Benchmark
+  public byte[] emailSerializeString() {
+    return string.serialize(EMAIL);
+  }
+
+  @Benchmark
+  public Object emailDeserializeJson() {
+    return json.deserialize(emailJson);
+  }
+
+  @Benchmark
+  public String emailDeserializeString() {
+    return string.deserialize(emailString);
+  }
+
+  @Benchmark
+  public byte[] userSerializeJson() {
+    return userJson.serialize(USER);
+  }
+
+  @Benchmark
+  public byte[] userSerializeBinary() {
+    return userBinary.serialize(USER);
+  }
+
+  @Benchmark
+  public UserJwtDTO userDeserializeJson() {
+    return userJson.deserialize(userJsonBytes);
+  }
+
+  @Benchmark
+  public UserJwtDTO userDeserializeBinary() {
+    return userBinary.deserialize(userBinaryBytes);
+  }
+}
@@ -0,0 +1,61 @@
+package dev.felipemlozx.api_auth.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import dev.felipemlozx.api_auth.infra.security.KeyRing;
+import dev.felipemlozx.api_auth.infra.security.SigningKey;
+import dev.felipemlozx.api_auth.infra.security.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call {@code Algorithm.HMAC256(secret)} + {@code JWT.require(...).build()} (the old TokenService)
+ * against the precomputed verifier held by the {@link KeyRing}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenVerificationBenchmark {
+
+  private static final String SECRET = "benchmark-secret";
+  private static final String ISSUER = "API-auth";
+
+  private TokenService tokenService;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    tokenService = new TokenService(new KeyRing(SigningKey.hmac("bench", SECRET, ISSUER)));
+    UserJwtDTO user = new UserJwtDTO(42L, "bench", "bench@gmail.com");
+    token = tokenService.generateToken(user);
+  }
+
+  @Benchmark
+  public DecodedJWT perCallConstruction() {
+    Algorithm algorithm = Algorithm.HMAC256(SECRET);
+    return JWT.require(algorithm)
+        .withIssuer(ISSUER)
+        .build()
+        .verify(token);
+  }
+
+  @Benchmark
+  public DecodedJWT keyRing() {
+    return tokenService.validateToken(token);
+  }
+}
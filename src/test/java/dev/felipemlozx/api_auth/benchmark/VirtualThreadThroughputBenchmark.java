@@ -0,0 +1,93 @@
+package dev.felipemlozx.api_auth.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second for a burst of concurrent requests that mostly wait on I/O (the MySQL,
+ * Redis and SMTP round trips of register/login), on Tomcat's default 200 platform threads against
+ * one virtual thread per request. {@code pinned} does the wait inside {@code synchronized}, as the
+ * 8.x MySQL driver did, which pins the virtual thread and brings the virtual executor back down to
+ * one request per carrier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadThroughputBenchmark {
+
+  private static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  @Param({"false", "true"})
+  public boolean pinned;
+
+  @Param({"2000"})
+  public int concurrentRequests;
+
+  @Param({"10"})
+  public int ioMillis;
+
+  private ExecutorService executor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    executor = threads.equals("virtual")
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /** One operation is the whole burst; multiply the score by concurrentRequests for requests/s. */
+  @Benchmark
+  public int burst() throws Exception {
+    List<Future<Integer>> responses = new ArrayList<>(concurrentRequests);
+    for (int i = 0; i < concurrentRequests; i++) {
+      responses.add(executor.submit(pinned ? this::handlePinned : this::handle));
+    }
+    int completed = 0;
+    for (Future<Integer> response : responses) {
+      completed += response.get();
+    }
+    return completed;
+  }
+
+  private int handle() throws InterruptedException {
+    Thread.sleep(ioMillis);
+    return 1;
+  }
+
+  private int handlePinned() throws InterruptedException {
+    // a private monitor: no contention, the cost measured is only the pinning
+    synchronized (new Object()) {
+      Thread.sleep(ioMillis);
+    }
+    return 1;
+  }
+}
@@ -1,12 +1,14 @@
 package dev.felipemlozx.api_auth.controller;
 
 import dev.felipemlozx.api_auth.core.AuthError;
+import dev.felipemlozx.api_auth.core.EmailResendThrottled;
 import dev.felipemlozx.api_auth.core.LoginFailure;
 import dev.felipemlozx.api_auth.core.LoginResult;
 import dev.felipemlozx.api_auth.core.LoginSuccess;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
 import dev.felipemlozx.api_auth.dto.ResponseLoginDTO;
+import dev.felipemlozx.api_auth.infra.security.PasswordHashingRejectedException;
 import dev.felipemlozx.api_auth.services.AuthService;
 import dev.felipemlozx.api_auth.utils.ApiResponse;
 import jakarta.mail.MessagingException;
@@ -15,9 +17,11 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -122,6 +126,27 @@ class AuthControllerTest {
     assertNull(response.getBody().getData());
   }
 
+  @Test
+  void shouldReturnServiceUnavailableWithRetryAfterWhenHashingQueueIsFull() {
+    ResponseEntity<ApiResponse<Void>> response = authController.hashingOverloaded(
+        new PasswordHashingRejectedException(Duration.ofSeconds(3)));
+
+    assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertFalse(response.getBody().isSuccess());
+  }
+
+  @Test
+  void shouldReturnTooManyRequestsWithRetryAfterWhenResendIsThrottled() {
+    when(authService.resendEmail("test@gmail.com")).thenReturn(new EmailResendThrottled(Duration.ofMillis(1500)));
+
+    ResponseEntity<ApiResponse<String>> response = authController.resendEmail("test@gmail.com");
+
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+    assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    assertFalse(response.getBody().isSuccess());
+  }
+
   @Test
   void shouldReturnSussedWhenEmailIsVerified() {
     String token = "fake-token";
@@ -0,0 +1,58 @@
+package dev.felipemlozx.api_auth.controller;
+
+import dev.felipemlozx.api_auth.infra.security.KeyRing;
+import dev.felipemlozx.api_auth.infra.security.SigningKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class JwksControllerTest {
+
+  private KeyRing keyRing;
+  private SigningKey ecKey;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair pair = generator.generateKeyPair();
+    ecKey = SigningKey.es256((ECPublicKey) pair.getPublic(), (ECPrivateKey) pair.getPrivate(), "API-auth");
+    keyRing = new KeyRing(SigningKey.hmac("default", "secret", "API-auth"));
+    keyRing.rotate(ecKey);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldPublishOnlyAsymmetricKeysWithCacheHeaders() {
+    JwksController controller = new JwksController(keyRing, Duration.ofHours(6));
+
+    ResponseEntity<Map<String, Object>> response = controller.jwks();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("max-age=21600, public", response.getHeaders().getCacheControl());
+    assertNotNull(response.getHeaders().getETag());
+
+    List<Map<String, Object>> keys = (List<Map<String, Object>>) response.getBody().get("keys");
+    assertEquals(1, keys.size());
+    Map<String, Object> jwk = keys.get(0);
+    assertEquals(ecKey.kid(), jwk.get("kid"));
+    assertEquals("EC", jwk.get("kty"));
+    assertEquals("P-256", jwk.get("crv"));
+    assertEquals("ES256", jwk.get("alg"));
+    assertEquals(43, ((String) jwk.get("x")).length());
+    assertEquals(43, ((String) jwk.get("y")).length());
+  }
+}
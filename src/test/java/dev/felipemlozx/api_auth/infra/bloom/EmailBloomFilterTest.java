@@ -0,0 +1,159 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailBloomFilterTest {
+
+  private static final int USERS = 10_000;
+  private static final double FPP = 0.01;
+
+  @Test
+  void shouldAnswerMaybeUntilBuilt() {
+    EmailBloomFilter filter = filter();
+
+    assertTrue(filter.mightContain("anyone@gmail.com"));
+    assertTrue(filter.needsRebuild());
+  }
+
+  @Test
+  void shouldContainEveryRegisteredEmailAndRejectMostOthers() {
+    EmailBloomFilter filter = filter();
+    assertEquals(USERS, filter.rebuild(emails("user").iterator()));
+
+    emails("user").forEach(email -> assertTrue(filter.mightContain(email)));
+    long falsePositives = emails("stranger").filter(filter::mightContain).count();
+
+    assertTrue(falsePositives < USERS * FPP * 2, "false positives: " + falsePositives);
+    assertEquals(USERS, filter.estimatedElements(), USERS * 0.05);
+    assertEquals(FPP, filter.estimatedFpp(), FPP / 2);
+  }
+
+  @Test
+  void shouldKeepEmailsRegisteredWhileRebuilding() {
+    EmailBloomFilter filter = filter();
+    filter.rebuild(List.of("old@gmail.com").iterator());
+    Iterator<String> rows = emails("user").iterator();
+
+    filter.rebuild(new Iterator<>() {
+      @Override
+      public boolean hasNext() {
+        return rows.hasNext();
+      }
+
+      @Override
+      public String next() {
+        // a sign-up committed after the table scan passed its position
+        filter.put("late@gmail.com");
+        return rows.next();
+      }
+    });
+
+    assertTrue(filter.mightContain("late@gmail.com"));
+  }
+
+  @Test
+  void shouldKeepEmailsRegisteredBeforeTheScanStarts() {
+    EmailBloomFilter filter = filter();
+    filter.rebuild(List.of("old@gmail.com").iterator());
+
+    filter.rebuild(sink -> {
+      // a sign-up committed after the scan's snapshot was fixed, before its first row was read
+      filter.put("late@gmail.com");
+      return sink.applyAsLong(emails("user").iterator());
+    });
+
+    assertTrue(filter.mightContain("late@gmail.com"));
+  }
+
+  @Test
+  void shouldAddRegisteredEmails() {
+    EmailBloomFilter filter = filter();
+    filter.rebuild(emails("user").iterator());
+    assertFalse(filter.mightContain("new@gmail.com"));
+
+    filter.put("new@gmail.com");
+
+    assertTrue(filter.mightContain("new@gmail.com"));
+  }
+
+  @Test
+  void shouldAskForRebuildAfterEnoughRemovals() {
+    EmailBloomFilter filter = filter();
+    filter.rebuild(emails("user").iterator());
+    assertFalse(filter.needsRebuild());
+
+    filter.recordRemovals(USERS / 10);
+    assertFalse(filter.needsRebuild());
+    filter.recordRemovals(USERS / 5);
+    assertTrue(filter.needsRebuild());
+  }
+
+  @Test
+  void shouldAnswerMaybeWhenTheStoreIsUnreachable() {
+    long bits = EmailBloomFilter.optimalBits(USERS, FPP, Long.MAX_VALUE);
+    FlakyStore store = new FlakyStore(bits);
+    EmailBloomFilter filter = new EmailBloomFilter(store, bits, 7, FPP, 0.2);
+    filter.rebuild(emails("user").iterator());
+
+    store.down = true;
+
+    assertTrue(filter.mightContain("stranger@gmail.com"));
+  }
+
+  @Test
+  void shouldAskForRebuildAfterAFailedPut() {
+    long bits = EmailBloomFilter.optimalBits(USERS, FPP, Long.MAX_VALUE);
+    FlakyStore store = new FlakyStore(bits);
+    EmailBloomFilter filter = new EmailBloomFilter(store, bits, 7, FPP, 0.2);
+    filter.rebuild(emails("user").iterator());
+
+    store.down = true;
+    filter.put("new@gmail.com");
+    store.down = false;
+
+    assertFalse(filter.mightContain("new@gmail.com"));
+    assertTrue(filter.needsRebuild());
+    filter.rebuild(List.of("new@gmail.com").iterator());
+    assertFalse(filter.needsRebuild());
+    assertTrue(filter.mightContain("new@gmail.com"));
+  }
+
+  private static EmailBloomFilter filter() {
+    long bits = EmailBloomFilter.optimalBits(USERS, FPP, Long.MAX_VALUE);
+    int hashFunctions = EmailBloomFilter.optimalHashFunctions(USERS, bits);
+    return new EmailBloomFilter(new LocalBloomBitStore(bits), bits, hashFunctions, FPP, 0.2);
+  }
+
+  private static java.util.stream.Stream<String> emails(String prefix) {
+    return IntStream.range(0, USERS).mapToObj(i -> prefix + i + "@gmail.com");
+  }
+
+  private static final class FlakyStore extends LocalBloomBitStore {
+    private boolean down;
+
+    FlakyStore(long bits) {
+      super(bits);
+    }
+
+    @Override
+    public void set(long[] offsets) {
+      if (down) throw new RedisConnectionFailureException("down");
+      super.set(offsets);
+    }
+
+    @Override
+    public boolean allSet(long[] offsets) {
+      if (down) throw new RedisConnectionFailureException("down");
+      return super.allSet(offsets);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package dev.felipemlozx.api_auth.infra.bloom;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisBloomBitStoreTest {
+
+  private static final long BITS = 1 << 16;
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redis;
+
+  private RedisBloomBitStore store;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redis = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    connectionFactory.destroy();
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redis.delete(List.of("email-bloom:{test}", "email-bloom:{test}:next"));
+    store = new RedisBloomBitStore(redis, "email-bloom:{test}", BITS);
+  }
+
+  @Test
+  void shouldAnswerMaybeAndNotCreateBitmapBeforeFirstBuild() {
+    store.set(new long[]{1, 2});
+
+    assertFalse(store.isBuilt());
+    assertTrue(store.allSet(new long[]{3}));
+  }
+
+  @Test
+  void shouldServeBitsAfterRebuild() {
+    store.beginRebuild();
+    store.setInRebuild(List.of(new long[]{1, 70}, new long[]{BITS - 1}));
+    store.finishRebuild();
+
+    assertTrue(store.isBuilt());
+    assertTrue(store.allSet(new long[]{1, 70, BITS - 1}));
+    assertFalse(store.allSet(new long[]{1, 2}));
+    assertEquals(3, store.bitCount());
+  }
+
+  @Test
+  void shouldWriteToBothGenerationsDuringRebuild() {
+    store.beginRebuild();
+    store.finishRebuild();
+
+    store.beginRebuild();
+    store.set(new long[]{5});
+    assertTrue(store.allSet(new long[]{5}));
+    store.finishRebuild();
+
+    assertTrue(store.allSet(new long[]{5}));
+  }
+}
@@ -0,0 +1,107 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmailResendLimiterTest {
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redis;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redis = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    connectionFactory.destroy();
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @BeforeEach
+  void cleanKeys() {
+    redis.delete(redis.keys("email:resend:*"));
+  }
+
+  @Test
+  void coalescesResendsWithinTheWindow() throws Exception {
+    EmailResendLimiter limiter = new EmailResendLimiter(redis, Duration.ofMillis(300), 10, Duration.ofHours(1),
+        100, Duration.ofMinutes(1));
+
+    assertEquals(EmailResendLimiter.Outcome.SEND, limiter.acquire("ana@gmail.com").outcome());
+    EmailResendLimiter.Decision again = limiter.acquire("ana@gmail.com");
+    assertEquals(EmailResendLimiter.Outcome.COALESCED, again.outcome());
+    assertTrue(again.retryAfter().toMillis() <= 300);
+    assertEquals(EmailResendLimiter.Outcome.SEND, limiter.acquire("bob@gmail.com").outcome());
+
+    Thread.sleep(400);
+    assertEquals(EmailResendLimiter.Outcome.SEND, limiter.acquire("ana@gmail.com").outcome());
+  }
+
+  @Test
+  void limitsEachRecipientPerPeriod() {
+    EmailResendLimiter limiter = new EmailResendLimiter(redis, Duration.ofMinutes(1), 2, Duration.ofHours(1),
+        100, Duration.ofMinutes(1));
+
+    assertEquals(EmailResendLimiter.Outcome.SEND, acquireAfterWindow(limiter, "ana@gmail.com"));
+    assertEquals(EmailResendLimiter.Outcome.SEND, acquireAfterWindow(limiter, "ana@gmail.com"));
+    redis.delete(EmailResendLimiter.dedupKey("ana@gmail.com"));
+    EmailResendLimiter.Decision limited = limiter.acquire("ana@gmail.com");
+    assertEquals(EmailResendLimiter.Outcome.RECIPIENT_LIMITED, limited.outcome());
+    assertTrue(limited.retryAfter().compareTo(Duration.ofMinutes(59)) > 0);
+    assertEquals(EmailResendLimiter.Outcome.SEND, limiter.acquire("bob@gmail.com").outcome());
+  }
+
+  @Test
+  void limitsEveryoneTogether() {
+    EmailResendLimiter limiter = new EmailResendLimiter(redis, Duration.ofMinutes(1), 10, Duration.ofHours(1),
+        3, Duration.ofMinutes(1));
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(EmailResendLimiter.Outcome.SEND, limiter.acquire("user" + i + "@gmail.com").outcome());
+    }
+    assertEquals(EmailResendLimiter.Outcome.GLOBAL_LIMITED, limiter.acquire("late@gmail.com").outcome());
+    // the refused resend hands its per-address reservation back
+    assertFalse(redis.hasKey(EmailResendLimiter.dedupKey("late@gmail.com")));
+    assertEquals("0", redis.opsForValue().get(EmailResendLimiter.countKey("late@gmail.com")));
+  }
+
+  @Test
+  void letsOnlyOneOfConcurrentClicksThrough() {
+    EmailResendLimiter limiter = new EmailResendLimiter(redis, Duration.ofMinutes(1), 10, Duration.ofHours(1),
+        100, Duration.ofMinutes(1));
+
+    List<CompletableFuture<EmailResendLimiter.Outcome>> clicks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      clicks.add(CompletableFuture.supplyAsync(() -> limiter.acquire("ana@gmail.com").outcome()));
+    }
+    long sent = clicks.stream().map(CompletableFuture::join).filter(EmailResendLimiter.Outcome.SEND::equals).count();
+
+    assertEquals(1, sent);
+    assertEquals("1", redis.opsForValue().get(EmailResendLimiter.GLOBAL_KEY));
+  }
+
+  private static EmailResendLimiter.Outcome acquireAfterWindow(EmailResendLimiter limiter, String email) {
+    redis.delete(EmailResendLimiter.dedupKey(email));
+    return limiter.acquire(email).outcome();
+  }
+}
@@ -0,0 +1,133 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJavaMailSenderTest {
+
+  @RegisterExtension
+  static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+  private PooledJavaMailSender sender;
+
+  private PooledJavaMailSender sender(int maxConnections, Duration idleTimeout) {
+    sender = new PooledJavaMailSender(maxConnections, Duration.ofSeconds(5), idleTimeout, Duration.ofSeconds(10));
+    sender.setHost("localhost");
+    sender.setPort(ServerSetupTest.SMTP.getPort());
+    Properties properties = new Properties();
+    properties.put("mail.smtp.connectiontimeout", "2000");
+    properties.put("mail.smtp.timeout", "2000");
+    sender.setJavaMailProperties(properties);
+    return sender;
+  }
+
+  @AfterEach
+  void shutdown() {
+    if (sender != null) sender.shutdown();
+  }
+
+  @Test
+  void reusesOneConnectionAcrossBatches() throws Exception {
+    PooledJavaMailSender sender = sender(2, Duration.ofMinutes(1));
+
+    for (int batch = 0; batch < 3; batch++) {
+      sender.send(message("a" + batch + "@gmail.com"), message("b" + batch + "@gmail.com"));
+    }
+
+    assertEquals(6, greenMail.getReceivedMessages().length);
+    assertEquals(1, sender.openedConnections());
+    assertEquals(1, sender.idleConnections());
+  }
+
+  @Test
+  void closesConnectionsLeftIdle() throws Exception {
+    PooledJavaMailSender sender = sender(2, Duration.ofMillis(200));
+    sender.send(message("first@gmail.com"));
+    assertEquals(1, sender.idleConnections());
+
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (sender.idleConnections() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(0, sender.idleConnections());
+
+    sender.send(message("second@gmail.com"));
+    assertEquals(2, sender.openedConnections());
+    assertEquals(2, greenMail.getReceivedMessages().length);
+  }
+
+  @Test
+  void reconnectsWhenTheServerDroppedAPooledConnection() throws Exception {
+    PooledJavaMailSender sender = sender(1, Duration.ofMinutes(1));
+    sender.send(message("before@gmail.com"));
+
+    greenMail.stop();
+    greenMail.start();
+    sender.send(message("after@gmail.com"));
+
+    assertEquals(2, sender.openedConnections());
+    assertEquals(1, greenMail.getReceivedMessages().length);
+  }
+
+  @Test
+  void failsTheWholeBatchWhenTheServerIsDown() throws Exception {
+    PooledJavaMailSender sender = sender(1, Duration.ofMinutes(1));
+    greenMail.stop();
+
+    MimeMessage first = message("first@gmail.com");
+    MimeMessage second = message("second@gmail.com");
+    MailSendException failure = assertThrows(MailSendException.class, () -> sender.send(first, second));
+
+    assertEquals(2, failure.getFailedMessages().size());
+    assertEquals(0, sender.idleConnections());
+    greenMail.start();
+  }
+
+  @Test
+  void neverOpensMoreThanMaxConnections() throws Exception {
+    PooledJavaMailSender sender = sender(2, Duration.ofMinutes(1));
+    ExecutorService senders = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> sends = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        String to = "user" + i + "@gmail.com";
+        sends.add(senders.submit(() -> {
+          sender.send(message(to));
+          return null;
+        }));
+      }
+      for (Future<?> send : sends) send.get();
+    } finally {
+      senders.shutdownNow();
+    }
+
+    assertEquals(40, greenMail.getReceivedMessages().length);
+    assertTrue(sender.openedConnections() <= 2, "opened " + sender.openedConnections());
+  }
+
+  private MimeMessage message(String to) throws Exception {
+    MimeMessage message = sender.createMimeMessage();
+    MimeMessageHelper helper = new MimeMessageHelper(message);
+    helper.setFrom("noreply@gmail.com");
+    helper.setTo(to);
+    helper.setSubject("Confirm your e-mail");
+    helper.setText("<p>hi</p>", true);
+    return message;
+  }
+}
@@ -0,0 +1,78 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordRedisSerializerTest {
+
+  private final RecordRedisSerializer<UserJwtDTO> serializer = new RecordRedisSerializer<>(UserJwtDTO.class);
+
+  record Session(long id, Integer attempts, boolean active, Instant expiresAt, String device) { }
+
+  @Test
+  void roundTripsAUser() {
+    UserJwtDTO user = new UserJwtDTO(123456789L, "Jöse Ñandú 名前", "jose@gmail.com");
+
+    assertEquals(user, serializer.deserialize(serializer.serialize(user)));
+  }
+
+  @Test
+  void roundTripsNullsAndEdgeValues() {
+    assertEquals(new UserJwtDTO(null, null, ""), serializer.deserialize(serializer.serialize(new UserJwtDTO(null, null, ""))));
+    assertEquals(new UserJwtDTO(Long.MIN_VALUE, "a", "b"),
+        serializer.deserialize(serializer.serialize(new UserJwtDTO(Long.MIN_VALUE, "a", "b"))));
+
+    RecordRedisSerializer<Session> sessions = new RecordRedisSerializer<>(Session.class);
+    for (Session session : List.of(
+        new Session(-1, 3, true, Instant.parse("2026-01-02T03:04:05.123456789Z"), "phone"),
+        new Session(Long.MAX_VALUE, null, false, null, null))) {
+      assertEquals(session, sessions.deserialize(sessions.serialize(session)));
+    }
+  }
+
+  @Test
+  void isSmallerThanTheJson() {
+    UserJwtDTO user = new UserJwtDTO(42L, "test", "test@gmail.com");
+
+    int json = new Jackson2JsonRedisSerializer<>(UserJwtDTO.class).serialize(user).length;
+    int binary = serializer.serialize(user).length;
+
+    assertTrue(binary * 5 < json * 3, binary + " bytes vs " + json + " bytes of JSON");
+  }
+
+  @Test
+  void readsValuesOfAnotherSchemaAsMisses() {
+    byte[] json = new Jackson2JsonRedisSerializer<>(UserJwtDTO.class).serialize(new UserJwtDTO(1L, "test", "test@gmail.com"));
+    assertNull(serializer.deserialize(json));
+    assertNull(serializer.deserialize("x".getBytes(StandardCharsets.UTF_8)));
+
+    byte[] session = new RecordRedisSerializer<>(Session.class).serialize(new Session(1, 1, true, null, "web"));
+    assertNull(serializer.deserialize(session));
+  }
+
+  @Test
+  void rejectsTruncatedValues() {
+    byte[] bytes = serializer.serialize(new UserJwtDTO(1L, "test", "test@gmail.com"));
+
+    assertThrows(SerializationException.class, () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 3)));
+  }
+
+  @Test
+  void rejectsUnsupportedComponents() {
+    record Tagged(List<String> tags) { }
+
+    assertThrows(IllegalArgumentException.class, () -> new RecordRedisSerializer<>(Tagged.class));
+  }
+}
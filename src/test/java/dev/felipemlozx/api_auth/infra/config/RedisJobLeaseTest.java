@@ -0,0 +1,116 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisJobLeaseTest {
+
+  private static final Duration INTERVAL = Duration.ofMinutes(30);
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redis;
+
+  private RedisJobLease nodeA;
+  private RedisJobLease nodeB;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redis = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    connectionFactory.destroy();
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redis.delete(redis.keys("job:*"));
+    nodeA = new RedisJobLease(redis, Duration.ofMillis(300));
+    nodeB = new RedisJobLease(redis, Duration.ofMillis(300));
+  }
+
+  @AfterEach
+  void tearDown() {
+    nodeA.shutdown();
+    nodeB.shutdown();
+  }
+
+  @Test
+  void shouldRunJobOnOnlyOneNodeWhileLeaseIsHeld() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> runA = CompletableFuture.supplyAsync(() -> nodeA.runIfDue("job", INTERVAL, () -> {
+      started.countDown();
+      await(release);
+    }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // longer than the lease TTL, so only the watchdog keeps node A's lease alive
+    Thread.sleep(700);
+    assertFalse(nodeB.runIfDue("job", INTERVAL, () -> { throw new AssertionError("ran twice"); }));
+
+    release.countDown();
+    assertTrue(runA.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void shouldSkipJobUntilIntervalElapsedAfterSuccess() {
+    AtomicInteger runs = new AtomicInteger();
+
+    assertTrue(nodeA.runIfDue("job", INTERVAL, runs::incrementAndGet));
+    assertFalse(nodeA.runIfDue("job", INTERVAL, runs::incrementAndGet));
+    assertFalse(nodeB.runIfDue("job", INTERVAL, runs::incrementAndGet));
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  void shouldFailOverWhenOwnerDiesMidRun() throws Exception {
+    // a lease left behind by a node that crashed: nobody renews it
+    redis.opsForValue().set("job:job:lease", "dead-node", Duration.ofMillis(300));
+    AtomicInteger runs = new AtomicInteger();
+
+    assertFalse(nodeB.runIfDue("job", INTERVAL, runs::incrementAndGet));
+    Thread.sleep(500);
+    assertTrue(nodeB.runIfDue("job", INTERVAL, runs::incrementAndGet));
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  void shouldReleaseLeaseWhenJobFails() {
+    assertThrows(IllegalStateException.class,
+        () -> nodeA.runIfDue("job", INTERVAL, () -> { throw new IllegalStateException("boom"); }));
+
+    assertTrue(nodeB.runIfDue("job", INTERVAL, () -> { }));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,155 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplicaRoutingDataSourceTest {
+
+  private JdbcTemplate jdbc;
+  private TransactionTemplate readOnly;
+  private TransactionTemplate readWrite;
+
+  @BeforeEach
+  void setUp() {
+    DataSource primary = database("primary");
+    DataSource replica1 = database("replica1");
+    DataSource replica2 = database("replica2");
+    DataSource routing = new LazyConnectionDataSourceProxy(
+        new ReplicaRoutingDataSource(primary, List.of(replica1, replica2)));
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+
+    jdbc = new JdbcTemplate(routing);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  @Test
+  void shouldSendReadOnlyTransactionsToReplicasRoundRobin() {
+    Set<String> served = new HashSet<>();
+    for (int i = 0; i < 4; i++) served.add(readOnly.execute(status -> node()));
+
+    assertEquals(Set.of("replica1", "replica2"), served);
+  }
+
+  @Test
+  void shouldSendWritesAndNonTransactionalWorkToPrimary() {
+    assertEquals("primary", readWrite.execute(status -> node()));
+    assertEquals("primary", node());
+  }
+
+  @Test
+  void shouldPinReadOnlyTransactionToPrimaryWhenAsked() {
+    assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> node())));
+    assertTrue(readOnly.execute(status -> node()).startsWith("replica"));
+  }
+
+  @Test
+  void shouldReadOwnWritesFromPrimaryWithinWindow() {
+    MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    ReadYourWritesTracker tracker = new ReadYourWritesTracker(null, Duration.ofSeconds(5), clock);
+    tracker.markWritten("user@gmail.com");
+
+    assertEquals("primary", tracker.read("user@gmail.com", () -> readOnly.execute(status -> node())));
+    assertTrue(tracker.read("other@gmail.com", () -> readOnly.execute(status -> node())).startsWith("replica"));
+
+    clock.instant = clock.instant.plusSeconds(6);
+    assertTrue(tracker.read("user@gmail.com", () -> readOnly.execute(status -> node())).startsWith("replica"));
+  }
+
+  @Test
+  void shouldReadWritesMadeOnAnotherNodeFromPrimary() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    try {
+      connectionFactory.afterPropertiesSet();
+      connectionFactory.start();
+      StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+      redis.delete(ReadYourWritesTracker.KEY_PREFIX + "user@gmail.com");
+      ReadYourWritesTracker signUpNode = new ReadYourWritesTracker(redis, Duration.ofSeconds(5), Clock.systemUTC());
+      ReadYourWritesTracker loginNode = new ReadYourWritesTracker(redis, Duration.ofSeconds(5), Clock.systemUTC());
+
+      assertTrue(loginNode.read("user@gmail.com", () -> readOnly.execute(status -> node())).startsWith("replica"));
+      signUpNode.markWritten("user@gmail.com");
+
+      assertEquals("primary", loginNode.read("user@gmail.com", () -> readOnly.execute(status -> node())));
+      assertTrue(redis.getExpire(ReadYourWritesTracker.KEY_PREFIX + "user@gmail.com") <= 5);
+    } finally {
+      connectionFactory.destroy();
+      EmbeddedRedisConfig.stopRedis();
+    }
+  }
+
+  @Test
+  void shouldReadFromPrimaryWhenTheSharedMarkerIsUnavailable() {
+    LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory("localhost", 1);
+    try {
+      connectionFactory.afterPropertiesSet();
+      connectionFactory.start();
+      ReadYourWritesTracker tracker = new ReadYourWritesTracker(new StringRedisTemplate(connectionFactory),
+          Duration.ofSeconds(5), Clock.systemUTC());
+
+      assertEquals("primary", tracker.read("user@gmail.com", () -> readOnly.execute(status -> node())));
+    } finally {
+      connectionFactory.destroy();
+    }
+  }
+
+  private String node() {
+    return jdbc.queryForObject("select name from node", String.class);
+  }
+
+  private static DataSource database(String name) {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+    JdbcTemplate template = new JdbcTemplate(dataSource);
+    template.execute("create table if not exists node (name varchar(32))");
+    template.execute("delete from node");
+    template.update("insert into node values (?)", name);
+    return dataSource;
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserSnapshotCacheTest {
+
+  private static final UserJwtDTO USER = new UserJwtDTO(1L, "test", "test@gmail.com");
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redis;
+  private static RedisTemplate<String, UserJwtDTO> snapshots;
+
+  private final AtomicInteger dbReads = new AtomicInteger();
+  private final Function<Long, Optional<UserJwtDTO>> database = id -> {
+    dbReads.incrementAndGet();
+    return Optional.of(USER);
+  };
+
+  private UserSnapshotCache replicaA;
+  private UserSnapshotCache replicaB;
+  private RedisMessageListenerContainer listenerA;
+  private RedisMessageListenerContainer listenerB;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redis = new StringRedisTemplate(connectionFactory);
+    snapshots = new RedisTemplate<>();
+    snapshots.setConnectionFactory(connectionFactory);
+    snapshots.setKeySerializer(RedisSerializer.string());
+    snapshots.setValueSerializer(CacheValueFormat.BINARY.serializer(UserJwtDTO.class));
+    snapshots.afterPropertiesSet();
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    connectionFactory.destroy();
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @BeforeEach
+  void setUp() {
+    redis.delete(redis.keys("user:snapshot:*"));
+    replicaA = new UserSnapshotCache(snapshots, redis, Duration.ofMinutes(5), 100, Duration.ofMinutes(5));
+    replicaB = new UserSnapshotCache(snapshots, redis, Duration.ofMinutes(5), 100, Duration.ofMinutes(5));
+    listenerA = listen(replicaA);
+    listenerB = listen(replicaB);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    listenerA.destroy();
+    listenerB.destroy();
+  }
+
+  @Test
+  void shouldServeRepeatedReadsWithoutDatabase() {
+    for (int i = 0; i < 100; i++) {
+      assertEquals(Optional.of(USER), replicaA.get(1L, database));
+    }
+    assertEquals(1, dbReads.get());
+  }
+
+  @Test
+  void shouldShareSnapshotBetweenReplicasThroughRedis() {
+    replicaA.get(1L, database);
+    assertEquals(Optional.of(USER), replicaB.get(1L, database));
+    assertEquals(1, dbReads.get());
+  }
+
+  @Test
+  void shouldDropLocalCopiesOnEveryReplicaWhenInvalidated() throws Exception {
+    replicaA.get(1L, database);
+    replicaB.get(1L, database);
+
+    replicaA.invalidateAll(List.of(1L));
+    Thread.sleep(300);
+    replicaB.get(1L, database);
+
+    assertEquals(2, dbReads.get());
+  }
+
+  @Test
+  void shouldNotWriteBackSnapshotLoadedBeforeConcurrentInvalidation() {
+    replicaA.get(1L, id -> {
+      dbReads.incrementAndGet();
+      // an update or delete lands while this replica is still reading the old row
+      replicaB.invalidate(id);
+      return Optional.of(USER);
+    });
+
+    replicaB.get(1L, database);
+    replicaA.get(1L, database);
+    assertEquals(2, dbReads.get());
+  }
+
+  @Test
+  void shouldQueryAFailingDatabaseOnlyOnce() {
+    assertThrows(DataAccessResourceFailureException.class, () -> replicaA.get(1L, id -> {
+      dbReads.incrementAndGet();
+      throw new DataAccessResourceFailureException("database down");
+    }));
+
+    assertEquals(1, dbReads.get());
+  }
+
+  @Test
+  void shouldReadTheDatabaseOnceWhenRedisIsUnavailable() {
+    LettuceConnectionFactory unreachable = new LettuceConnectionFactory("localhost", 1);
+    try {
+      unreachable.afterPropertiesSet();
+      unreachable.start();
+      RedisTemplate<String, UserJwtDTO> downSnapshots = new RedisTemplate<>();
+      downSnapshots.setConnectionFactory(unreachable);
+      downSnapshots.setKeySerializer(RedisSerializer.string());
+      downSnapshots.setValueSerializer(new RecordRedisSerializer<>(UserJwtDTO.class));
+      downSnapshots.afterPropertiesSet();
+      UserSnapshotCache cache = new UserSnapshotCache(downSnapshots, new StringRedisTemplate(unreachable),
+          Duration.ofMinutes(5), 100, Duration.ofMinutes(5));
+
+      assertEquals(Optional.of(USER), cache.get(1L, database));
+      assertEquals(1, dbReads.get());
+    } finally {
+      unreachable.destroy();
+    }
+  }
+
+  @Test
+  void shouldTreatAValueInTheOtherFormatAsAMiss() {
+    replicaA.get(1L, database);
+    RedisTemplate<String, UserJwtDTO> jsonSnapshots = new RedisTemplate<>();
+    jsonSnapshots.setConnectionFactory(connectionFactory);
+    jsonSnapshots.setKeySerializer(RedisSerializer.string());
+    jsonSnapshots.setValueSerializer(CacheValueFormat.JSON.serializer(UserJwtDTO.class));
+    jsonSnapshots.afterPropertiesSet();
+    UserSnapshotCache jsonReplica = new UserSnapshotCache(jsonSnapshots, redis, Duration.ofMinutes(5), 100,
+        Duration.ofMinutes(5));
+
+    assertEquals(Optional.of(USER), jsonReplica.get(1L, database));
+    assertEquals(2, dbReads.get());
+    // the reload rewrote the shared copy in this replica's format
+    assertEquals(USER, jsonSnapshots.opsForValue().get("user:snapshot:{1}"));
+  }
+
+  private static RedisMessageListenerContainer listen(UserSnapshotCache cache) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener(cache, new ChannelTopic(UserSnapshotCache.CHANNEL));
+    container.afterPropertiesSet();
+    container.start();
+    return container;
+  }
+}
@@ -0,0 +1,142 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VerificationTokenStoreTest {
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redis;
+
+  private final VerificationTokenStore store = new VerificationTokenStore(redis, "tag-secret");
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    redis = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void stopRedis() {
+    connectionFactory.destroy();
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @BeforeEach
+  void cleanKeys() {
+    redis.delete(redis.keys("email-verification:*"));
+  }
+
+  @Test
+  void issuesOneLiveTokenPerEmailWithBothDirectionsExpiringTogether() {
+    String token = store.issue("ana@gmail.com", Duration.ofMinutes(20));
+
+    assertEquals(token, store.issue("ana@gmail.com", Duration.ofMinutes(20)));
+    assertNotEquals(token, store.issue("bob@gmail.com", Duration.ofMinutes(20)));
+    assertEquals("ana@gmail.com", redis.opsForValue().get(VerificationTokenStore.tokenKey(token)));
+    assertEquals(token, redis.opsForValue().get(store.emailKey("ana@gmail.com")));
+    for (String key : List.of(VerificationTokenStore.tokenKey(token), store.emailKey("ana@gmail.com"))) {
+      long ttl = redis.getExpire(key, TimeUnit.SECONDS);
+      assertTrue(ttl > 19 * 60 && ttl <= 20 * 60, key + " ttl " + ttl);
+    }
+  }
+
+  @Test
+  void consumesATokenExactlyOnce() {
+    String token = store.issue("ana@gmail.com", Duration.ofMinutes(5));
+
+    assertEquals("ana@gmail.com", store.consume(token));
+    assertNull(store.consume(token));
+    assertFalse(redis.hasKey(store.emailKey("ana@gmail.com")));
+    // the next one issued is a new token
+    assertNotEquals(token, store.issue("ana@gmail.com", Duration.ofMinutes(5)));
+  }
+
+  @Test
+  void letsOnlyOneOfConcurrentClicksConsumeTheToken() {
+    String token = store.issue("ana@gmail.com", Duration.ofMinutes(5));
+
+    List<CompletableFuture<String>> clicks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      clicks.add(CompletableFuture.supplyAsync(() -> store.consume(token)));
+    }
+
+    assertEquals(1, clicks.stream().map(CompletableFuture::join).filter(Objects::nonNull).count());
+  }
+
+  @Test
+  void revokesTheTokensOfTheGivenEmails() {
+    String ana = store.issue("ana@gmail.com", Duration.ofMinutes(5));
+    String bob = store.issue("bob@gmail.com", Duration.ofMinutes(5));
+
+    assertEquals(1, store.revokeAll(List.of("ana@gmail.com", "nobody@gmail.com")));
+
+    assertNull(store.consume(ana));
+    assertEquals("bob@gmail.com", store.consume(bob));
+    assertEquals(0, store.revokeAll(List.of()));
+  }
+
+  @Test
+  void keepsBothKeysOfAPairInOneClusterSlot() {
+    String token = store.issue("ana@gmail.com", Duration.ofMinutes(5));
+
+    assertEquals(hashTag(store.emailKey("ana@gmail.com")), hashTag(VerificationTokenStore.tokenKey(token)));
+    assertNull(store.consume("not-a-token"));
+    assertNull(store.consume("x"));
+  }
+
+  @Test
+  void derivesTheTagFromTheSecretRatherThanTheEmailAlone() {
+    String token = store.issue("ana@gmail.com", Duration.ofMinutes(5));
+    VerificationTokenStore otherDeployment = new VerificationTokenStore(redis, "another-secret");
+
+    assertNotEquals(hashTag(store.emailKey("ana@gmail.com")), hashTag(otherDeployment.emailKey("ana@gmail.com")));
+    assertNotEquals(String.format("%08x", "ana@gmail.com".hashCode()), token.substring(0, 8));
+  }
+
+  @Test
+  void givesUpWhenTheLiveTokenNeverSettles() {
+    StringRedisTemplate flaky = mock(StringRedisTemplate.class);
+    ValueOperations<String, String> values = mock();
+    when(flaky.opsForValue()).thenReturn(values);
+    // every script run reports that the live token changed since it was read
+    VerificationTokenStore contended = new VerificationTokenStore(flaky, "tag-secret");
+
+    assertThrows(ConcurrencyFailureException.class, () -> contended.issue("ana@gmail.com", Duration.ofMinutes(5)));
+  }
+
+  @Test
+  void refusesAWindowThatAlreadyClosed() {
+    assertThrows(IllegalArgumentException.class, () -> store.issue("ana@gmail.com", Duration.ZERO));
+  }
+
+  private static String hashTag(String key) {
+    return key.substring(key.indexOf('{') + 1, key.indexOf('}'));
+  }
+}
@@ -0,0 +1,81 @@
+package dev.felipemlozx.api_auth.infra.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VirtualThreadPinningMonitorTest {
+
+  private SimpleMeterRegistry registry;
+  private VirtualThreadPinningMonitor monitor;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10));
+    monitor.bindTo(registry);
+    monitor.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    monitor.shutdown();
+  }
+
+  @Test
+  void shouldReportBlockingInsideSynchronizedBySite() throws Exception {
+    Thread.ofVirtual().start(this::sleepWhileLockingReentrantLock).join();
+    Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+    String pinnedSite = VirtualThreadPinningMonitorTest.class.getName() + ".sleepWhileHoldingMonitor";
+    Timer pinned = awaitTimer(pinnedSite);
+    assertNotNull(pinned, "pinning inside synchronized was not reported");
+    assertEquals(1, pinned.count());
+    // parking on a j.u.c lock unmounts the virtual thread instead of pinning it
+    assertNull(registry.find("jvm.threads.virtual.pinned")
+        .tag("site", VirtualThreadPinningMonitorTest.class.getName() + ".sleepWhileLockingReentrantLock")
+        .timer());
+  }
+
+  private void sleepWhileHoldingMonitor() {
+    synchronized (this) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void sleepWhileLockingReentrantLock() {
+    ReentrantLock lock = new ReentrantLock();
+    lock.lock();
+    try {
+      Thread.sleep(50);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // JFR delivers events to the stream about once a second
+  private Timer awaitTimer(String site) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (System.nanoTime() < deadline) {
+      Timer timer = registry.find("jvm.threads.virtual.pinned").tag("site", site).timer();
+      if (timer != null) return timer;
+      Thread.sleep(100);
+    }
+    return null;
+  }
+}
@@ -0,0 +1,153 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class AccessTokenVerifierTest {
+
+  private KeyRing keyRing;
+  private TokenService tokenService;
+  private AccessTokenVerifier verifier;
+  private UserJwtDTO user;
+
+  @BeforeEach
+  void setUp() {
+    keyRing = new KeyRing(SigningKey.hmac("k1", "secret-1", TokenService.ISSUER));
+    tokenService = spy(new TokenService(keyRing));
+    verifier = new AccessTokenVerifier(keyRing, tokenService);
+    user = new UserJwtDTO(123456789012L, "Zoë \"Z\" O'Brien\n", "zoe@gmail.com");
+  }
+
+  @Test
+  void shouldReadClaimsWithoutJavaJwt() {
+    String token = tokenService.generateToken(user);
+
+    VerifiedAccessToken verified = verifier.verify(token);
+
+    assertNotNull(verified);
+    assertEquals(123456789012L, verified.user().id());
+    assertEquals("Zoë \"Z\" O'Brien\n", verified.user().name());
+    assertEquals("zoe@gmail.com", verified.user().email());
+    assertEquals(List.of("USER_ROLE"), verified.roles());
+    assertNotNull(verified.expiresAt());
+    verify(tokenService, never()).validateToken(any());
+  }
+
+  @Test
+  void shouldRejectTamperedSignature() {
+    String token = tokenService.generateToken(user);
+    String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+    assertNull(verifier.verify(tampered));
+  }
+
+  @Test
+  void shouldRejectTokenSignedWithAnotherSecret() {
+    String token = JWT.create()
+        .withKeyId("k1")
+        .withIssuer(TokenService.ISSUER)
+        .withClaim("roles", List.of("USER_ROLE"))
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(Algorithm.HMAC256("other-secret"));
+
+    assertNull(verifier.verify(token));
+  }
+
+  @Test
+  void shouldRejectExpiredTokenAndWrongIssuer() {
+    Algorithm algorithm = Algorithm.HMAC256("secret-1");
+    String expired = JWT.create()
+        .withKeyId("k1")
+        .withIssuer(TokenService.ISSUER)
+        .withClaim("roles", List.of("USER_ROLE"))
+        .withExpiresAt(Instant.now().minusSeconds(1))
+        .sign(algorithm);
+    String foreignIssuer = JWT.create()
+        .withKeyId("k1")
+        .withIssuer("someone-else")
+        .withClaim("roles", List.of("USER_ROLE"))
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(algorithm);
+
+    assertNull(verifier.verify(expired));
+    assertNull(verifier.verify(foreignIssuer));
+  }
+
+  @Test
+  void shouldSkipUnknownClaims() {
+    String token = JWT.create()
+        .withKeyId("k1")
+        .withIssuer(TokenService.ISSUER)
+        .withClaim("extra", java.util.Map.of("nested", List.of(1, "}", true)))
+        .withClaim("id", 7L)
+        .withClaim("roles", List.of("USER_ROLE", "ADMIN_ROLE"))
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(Algorithm.HMAC256("secret-1"));
+
+    VerifiedAccessToken verified = verifier.verify(token);
+
+    assertEquals(7L, verified.user().id());
+    assertEquals(List.of("USER_ROLE", "ADMIN_ROLE"), verified.roles());
+  }
+
+  @Test
+  void shouldRejectRefreshTokens() {
+    assertNull(verifier.verify(tokenService.generateRefreshToken(user)));
+  }
+
+  @Test
+  void shouldFallBackToJavaJwtForEs256() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair pair = generator.generateKeyPair();
+    keyRing.rotate(SigningKey.es256((ECPublicKey) pair.getPublic(), (ECPrivateKey) pair.getPrivate(), TokenService.ISSUER));
+
+    VerifiedAccessToken verified = verifier.verify(tokenService.generateToken(user));
+
+    assertNotNull(verified);
+    assertEquals("zoe@gmail.com", verified.user().email());
+    verify(tokenService).validateToken(any());
+  }
+
+  @Test
+  void shouldForgetRetiredKeys() {
+    String oldToken = tokenService.generateToken(user);
+    keyRing.rotate(SigningKey.hmac("k2", "secret-2", TokenService.ISSUER));
+    String newToken = tokenService.generateToken(user);
+
+    assertNotNull(verifier.verify(oldToken));
+    assertEquals(2, verifier.preparedKeys());
+
+    keyRing.retire("k1");
+
+    assertNull(verifier.verify(oldToken));
+    assertNotNull(verifier.verify(newToken));
+    assertEquals(1, verifier.preparedKeys());
+  }
+
+  @Test
+  void shouldRejectGarbage() {
+    assertNull(verifier.verify(null));
+    assertNull(verifier.verify("abc"));
+    assertNull(verifier.verify("a.b.c"));
+  }
+}
@@ -0,0 +1,30 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordEncoderCalibratorTest {
+
+  @Test
+  void shouldStayAtMinimumCostWhenTargetIsUnreachable() {
+    int cost = PasswordEncoderCalibrator.calibrate("bcrypt", BCryptPasswordEncoder::new, 4, 8, Duration.ZERO);
+    assertEquals(4, cost);
+  }
+
+  @Test
+  void shouldPickHighestCostUnderTarget() {
+    int cost = PasswordEncoderCalibrator.calibrate("bcrypt", BCryptPasswordEncoder::new, 4, 6, Duration.ofSeconds(5));
+    assertEquals(6, cost);
+  }
+
+  @Test
+  void shouldStopAtFirstCostOverTarget() {
+    int cost = PasswordEncoderCalibrator.calibrate("bcrypt", BCryptPasswordEncoder::new, 4, 14, Duration.ofMillis(20));
+    assertTrue(cost >= 4 && cost < 14);
+  }
+}
@@ -0,0 +1,69 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingExecutorTest {
+
+  private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, Duration.ofSeconds(5));
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void shouldReturnTaskResult() {
+    assertEquals(Boolean.TRUE, executor.submit(() -> true));
+  }
+
+  @Test
+  void shouldRejectWhenPoolAndQueueAreFull() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    executor.bindTo(registry);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> executor.submit(() -> {
+      started.countDown();
+      await(release);
+      return true;
+    }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> executor.submit(() -> true));
+    waitForQueue(registry);
+
+    PasswordHashingRejectedException ex = assertThrows(PasswordHashingRejectedException.class,
+        () -> executor.submit(() -> true));
+    assertEquals(Duration.ofSeconds(5), ex.getRetryAfter());
+    assertEquals(1.0, registry.get("password.hashing.rejected").functionCounter().count());
+
+    release.countDown();
+    assertTrue(running.get(5, TimeUnit.SECONDS));
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+  }
+
+  private static void waitForQueue(SimpleMeterRegistry registry) throws InterruptedException {
+    for (int i = 0; i < 100 && registry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1; i++) {
+      Thread.sleep(20);
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenConfigTest {
+
+  private final TokenConfig config = new TokenConfig();
+
+  @Test
+  void shouldFailStartupInEs256ModeWithoutKeys() {
+    assertThrows(IllegalStateException.class, () -> config.keyRing("secret", "default", "es256", "", "", ""));
+  }
+
+  @Test
+  void shouldRefuseHmacTokensInEs256ModeWithoutAcceptUntil() throws Exception {
+    String[] pem = ecKeyPair();
+    KeyRing keyRing = config.keyRing("secret", "default", "es256", pem[0], pem[1], "");
+
+    assertNull(keyRing.find("default"));
+    assertFalse(keyRing.keys().stream().anyMatch(key -> key.hmacKey() != null));
+  }
+
+  @Test
+  void shouldAcceptHmacTokensUntilTheCutoff() throws Exception {
+    String[] pem = ecKeyPair();
+    KeyRing keyRing = config.keyRing("secret", "default", "es256", pem[0], pem[1],
+        Instant.now().plusSeconds(3600).toString());
+
+    assertNotNull(keyRing.find("default"));
+    assertNotNull(keyRing.active().publicKey());
+    assertEquals(2, keyRing.keys().size());
+  }
+
+  @Test
+  void shouldRejectAMalformedCutoff() throws Exception {
+    String[] pem = ecKeyPair();
+
+    assertThrows(IllegalStateException.class,
+        () -> config.keyRing("secret", "default", "es256", pem[0], pem[1], "next week"));
+  }
+
+  private static String[] ecKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair pair = generator.generateKeyPair();
+    Base64.Encoder base64 = Base64.getEncoder();
+    return new String[] {
+        base64.encodeToString(pair.getPrivate().getEncoded()),
+        base64.encodeToString(pair.getPublic().getEncoded())
+    };
+  }
+}
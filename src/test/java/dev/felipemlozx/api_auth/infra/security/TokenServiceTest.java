@@ -0,0 +1,164 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenServiceTest {
+
+  private KeyRing keyRing;
+  private TokenService tokenService;
+  private UserJwtDTO user;
+
+  @BeforeEach
+  void setUp() {
+    keyRing = new KeyRing(SigningKey.hmac("k1", "secret-1", TokenService.ISSUER));
+    tokenService = new TokenService(keyRing);
+    user = new UserJwtDTO(1L, "test", "test@gmail.com");
+  }
+
+  @Test
+  void shouldSignWithActiveKeyId() {
+    String token = tokenService.generateToken(user);
+
+    DecodedJWT decoded = tokenService.validateToken(token);
+    assertNotNull(decoded);
+    assertEquals("k1", decoded.getKeyId());
+    assertEquals("test@gmail.com", decoded.getClaim("email").asString());
+  }
+
+  @Test
+  void shouldKeepVerifyingOldTokensAfterRotation() {
+    String oldToken = tokenService.generateToken(user);
+
+    keyRing.rotate(SigningKey.hmac("k2", "secret-2", TokenService.ISSUER));
+    String newToken = tokenService.generateToken(user);
+
+    assertEquals("k1", tokenService.validateToken(oldToken).getKeyId());
+    assertEquals("k2", tokenService.validateToken(newToken).getKeyId());
+  }
+
+  @Test
+  void shouldRejectTokensOfRetiredKey() {
+    String oldToken = tokenService.generateToken(user);
+    keyRing.rotate(SigningKey.hmac("k2", "secret-2", TokenService.ISSUER));
+
+    keyRing.retire("k1");
+
+    assertNull(tokenService.validateToken(oldToken));
+  }
+
+  @Test
+  void shouldRejectTokensOfAKeyOnceItsRetirementIsDue() {
+    MutableClock clock = new MutableClock(Instant.now());
+    keyRing = new KeyRing(SigningKey.hmac("k1", "secret-1", TokenService.ISSUER), clock);
+    tokenService = new TokenService(keyRing);
+    String oldToken = tokenService.generateToken(user);
+    keyRing.rotate(SigningKey.hmac("k2", "secret-2", TokenService.ISSUER));
+    keyRing.retireAt("k1", clock.instant.plusSeconds(60));
+
+    assertNotNull(tokenService.validateToken(oldToken));
+
+    clock.instant = clock.instant.plusSeconds(60);
+
+    assertNull(tokenService.validateToken(oldToken));
+    assertEquals(1, keyRing.keys().size());
+  }
+
+  @Test
+  void shouldNotRetireActiveKey() {
+    assertThrows(IllegalStateException.class, () -> keyRing.retire("k1"));
+  }
+
+  @Test
+  void shouldVerifyLegacyTokenWithoutKeyId() {
+    String legacy = JWT.create()
+        .withIssuer(TokenService.ISSUER)
+        .withClaim("id", 1L)
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(Algorithm.HMAC256("secret-1"));
+
+    assertNotNull(tokenService.validateToken(legacy));
+  }
+
+  @Test
+  void shouldSignWithEs256SoDownstreamServicesVerifyWithPublicKeyOnly() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+    generator.initialize(new ECGenParameterSpec("secp256r1"));
+    KeyPair pair = generator.generateKeyPair();
+    SigningKey ecKey = SigningKey.es256((ECPublicKey) pair.getPublic(), (ECPrivateKey) pair.getPrivate(), TokenService.ISSUER);
+    keyRing.rotate(ecKey);
+
+    String token = tokenService.generateToken(user);
+
+    DecodedJWT decoded = JWT.require(Algorithm.ECDSA256((ECPublicKey) pair.getPublic(), null))
+        .withIssuer(TokenService.ISSUER)
+        .build()
+        .verify(token);
+    assertEquals(ecKey.kid(), decoded.getKeyId());
+    assertEquals("ES256", decoded.getAlgorithm());
+    assertNotNull(tokenService.validateToken(token));
+  }
+
+  @Test
+  void shouldReturnNullForInvalidTokens() {
+    assertNull(tokenService.validateToken(null));
+    assertNull(tokenService.validateToken("not-a-jwt"));
+    assertNull(tokenService.validateToken(tokenService.generateToken(user) + "x"));
+  }
+
+  @Test
+  void shouldGrantAdminRoleToConfiguredEmails() {
+    TokenService withAdmins = new TokenService(keyRing, Set.of("admin@gmail.com"));
+
+    DecodedJWT admin = withAdmins.validateToken(withAdmins.generateToken(new UserJwtDTO(2L, "admin", "admin@gmail.com")));
+    DecodedJWT regular = withAdmins.validateToken(withAdmins.generateToken(user));
+
+    assertEquals(List.of(TokenService.USER_ROLE, TokenService.ADMIN_ROLE), admin.getClaim("roles").asList(String.class));
+    assertEquals(List.of(TokenService.USER_ROLE), regular.getClaim("roles").asList(String.class));
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package dev.felipemlozx.api_auth.infra.security;
+
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+  private final Instant now = Instant.parse("2025-01-01T10:00:00Z");
+  private final UserJwtDTO user = new UserJwtDTO(1L, "user", "user@gmail.com");
+  private final KeyRing keyRing = new KeyRing(SigningKey.hmac("k1", "secret", TokenService.ISSUER));
+
+  private VerifiedAccessToken verified(Instant expiresAt) {
+    return new VerifiedAccessToken(user, List.of(TokenService.USER_ROLE), expiresAt, "k1");
+  }
+
+  @Test
+  void shouldReturnCachedAuthenticationAndCountHits() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, Clock.fixed(now, ZoneOffset.UTC), keyRing);
+
+    assertNull(cache.get("token"));
+    cache.put("token", verified(now.plusSeconds(60)));
+
+    Authentication authentication = cache.get("token");
+    assertEquals(user, authentication.getPrincipal());
+    assertEquals(TokenService.USER_ROLE, authentication.getAuthorities().iterator().next().getAuthority());
+    assertEquals(1, cache.hitCount());
+    assertEquals(1, cache.missCount());
+  }
+
+  @Test
+  void shouldHandEachRequestItsOwnAuthentication() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, Clock.fixed(now, ZoneOffset.UTC), keyRing);
+    Authentication first = cache.put("token", verified(now.plusSeconds(60)));
+
+    Authentication second = cache.get("token");
+    Authentication third = cache.get("token");
+
+    assertNotSame(first, second);
+    assertNotSame(second, third);
+    assertEquals(second.getPrincipal(), third.getPrincipal());
+  }
+
+  @Test
+  void shouldEvictEntryWhenTokenExpires() {
+    MutableClock clock = new MutableClock(now);
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, clock, keyRing);
+    cache.put("token", verified(now.plusSeconds(60)));
+    assertNotNull(cache.get("token"));
+
+    clock.instant = now.plusSeconds(61);
+
+    assertNull(cache.get("token"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldStopServingTokensOfARetiredKey() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, Clock.fixed(now, ZoneOffset.UTC), keyRing);
+    cache.put("token", verified(now.plusSeconds(60)));
+    keyRing.rotate(SigningKey.hmac("k2", "secret-2", TokenService.ISSUER));
+    assertNotNull(cache.get("token"));
+
+    keyRing.retire("k1");
+
+    assertNull(cache.get("token"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldStayWithinMaxEntries() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(2, Clock.fixed(now, ZoneOffset.UTC), keyRing);
+    for (int i = 0; i < 10; i++) {
+      cache.put("token-" + i, verified(now.plusSeconds(60)));
+    }
+
+    assertTrue(cache.size() <= 2, "size " + cache.size());
+  }
+
+  @Test
+  void shouldNotCacheWhenDisabled() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(0, Clock.fixed(now, ZoneOffset.UTC), keyRing);
+    assertNotNull(cache.put("token", verified(now.plusSeconds(60))));
+
+    assertNull(cache.get("token"));
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant instant;
+
+    MutableClock(Instant instant) {
+      this.instant = instant;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package dev.felipemlozx.api_auth.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.repository.EmailOutboxRepository;
+import dev.felipemlozx.api_auth.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// chunks and pages of 2 so imports and listings cross chunk/page boundaries
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"api.import.chunk-size=2", "api.admin.listing.page-size=2"})
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class AdminUserControllerIntegrationTest {
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  PasswordEncoder passwordEncoder;
+
+  @Autowired
+  EmailOutboxRepository emailOutboxRepository;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+  }
+  @BeforeEach
+  void cleanDatabase() {
+    userRepository.deleteAll();
+    emailOutboxRepository.deleteAll();
+    userRepository.save(new User("existing", "existing@gmail.com", passwordEncoder.encode("Password!1"), true));
+  }
+  @AfterAll
+  static void stopRedis() {
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @Test
+  @DisplayName("CSV import inserts valid rows and reports each rejected one")
+  void shouldImportCsvAndReportRejectedRows() throws Exception {
+    String csv = """
+        name,email,password
+        Ana,ana@gmail.com,Password!1
+        Bob,bob@gmail.com,weak
+        Carl,existing@gmail.com,Password!1
+        "Silva, Dan",dan@gmail.com,Password!1
+        Ana Again,ana@gmail.com,Password!1
+        Eve,eve@gmail.com
+        """;
+
+    List<JsonNode> lines = importFile("text/csv", csv);
+
+    assertEquals(5, lines.size());
+    assertRejected(lines.get(0), 3, "bob@gmail.com");
+    assertRejected(lines.get(1), 4, "existing@gmail.com", "Email already exists");
+    assertRejected(lines.get(2), 6, "ana@gmail.com", "Email already exists");
+    assertRejected(lines.get(3), 7, null, "Expected 3 columns: name,email,password");
+    assertEquals(2, lines.get(4).get("imported").asLong());
+    assertEquals(4, lines.get(4).get("failed").asLong());
+
+    assertEquals(3, userRepository.count());
+    User dan = userRepository.findByEmailNormalized("dan@gmail.com").orElseThrow();
+    assertEquals("Silva, Dan", dan.getName());
+    assertTrue(dan.isVerified());
+    assertTrue(passwordEncoder.matches("Password!1", dan.getPassword()));
+    assertEquals(0, emailOutboxRepository.count());
+  }
+
+  @Test
+  @DisplayName("NDJSON import reports malformed lines and in-file duplicates")
+  void shouldImportNdjsonAndReportRejectedRows() throws Exception {
+    String ndjson = """
+        {"name":"Ana","email":"ana@gmail.com","password":"Password!1"}
+        {"name":"Ana","email":"ana@gmail.com","password":"Password!1"}
+        {"name":"Bob",
+        {"name":"Carl","email":"carl@gmail.com","password":"Password!1"}
+        """;
+
+    List<JsonNode> lines = importFile("application/x-ndjson", ndjson);
+
+    assertEquals(3, lines.size());
+    assertRejected(lines.get(0), 2, "ana@gmail.com", "Duplicate email in file");
+    assertRejected(lines.get(1), 3, null, "Malformed JSON");
+    assertEquals(2, lines.get(2).get("imported").asLong());
+    assertEquals(2, lines.get(2).get("failed").asLong());
+    assertEquals(3, userRepository.count());
+  }
+
+  @Test
+  @DisplayName("Listing walks every page in id order and applies the filters")
+  void shouldListUsersPageByPage() throws Exception {
+    Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    for (int i = 0; i < 5; i++) {
+      User user = new User("user" + i, "user" + i + "@gmail.com", "hash", i % 2 == 0);
+      user.setTimeVerify(now.plusSeconds(i * 60L));
+      userRepository.save(user);
+    }
+
+    List<JsonNode> all = list("");
+    assertEquals(6, all.size());
+    for (int i = 1; i < all.size(); i++) {
+      assertTrue(all.get(i).get("id").asLong() > all.get(i - 1).get("id").asLong());
+    }
+    assertTrue(all.stream().noneMatch(user -> user.has("password")));
+
+    List<JsonNode> unverified = list("?verified=false");
+    assertEquals(List.of("user1@gmail.com", "user3@gmail.com"), emails(unverified));
+
+    List<JsonNode> window = list("?timeVerifyFrom=" + now.plusSeconds(30) + "&timeVerifyTo=" + now.plusSeconds(210));
+    assertEquals(List.of("user1@gmail.com", "user2@gmail.com", "user3@gmail.com"), emails(window));
+
+    long afterId = all.get(1).get("id").asLong();
+    List<JsonNode> resumed = list("?afterId=" + afterId + "&limit=3");
+    assertEquals(emails(all.subList(2, 5)), emails(resumed));
+  }
+
+  private List<JsonNode> list(String query) throws Exception {
+    String body = mockMvc.perform(MockMvcRequestBuilders.get("/admin/users" + query))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return readLines(body);
+  }
+
+  private static List<String> emails(List<JsonNode> users) {
+    return users.stream().map(user -> user.get("email").asText()).toList();
+  }
+
+  private List<JsonNode> importFile(String contentType, String content) throws Exception {
+    String body = mockMvc.perform(MockMvcRequestBuilders.post("/admin/users/import")
+            .contentType(contentType)
+            .content(content))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return readLines(body);
+  }
+
+  private List<JsonNode> readLines(String body) throws Exception {
+    List<JsonNode> lines = new ArrayList<>();
+    if (body.isEmpty()) return lines;
+    for (String line : body.split("\n")) {
+      lines.add(objectMapper.readTree(line));
+    }
+    return lines;
+  }
+
+  private static void assertRejected(JsonNode line, long lineNumber, String email, String... errors) {
+    assertEquals(lineNumber, line.get("line").asLong());
+    assertEquals(email, line.get("email").isNull() ? null : line.get("email").asText());
+    for (String error : errors) {
+      assertTrue(line.get("errors").toString().contains(error), line.toString());
+    }
+  }
+}
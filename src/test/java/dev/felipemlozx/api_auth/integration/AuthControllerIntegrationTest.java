@@ -2,11 +2,15 @@ package dev.felipemlozx.api_auth.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import dev.felipemlozx.api_auth.core.PurgeResult;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
+import dev.felipemlozx.api_auth.entity.EmailOutboxMessage;
 import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.config.VerificationTokenStore;
+import dev.felipemlozx.api_auth.repository.EmailOutboxRepository;
 import dev.felipemlozx.api_auth.repository.UserRepository;
-import dev.felipemlozx.api_auth.services.EmailService;
+import dev.felipemlozx.api_auth.services.UserService;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,19 +19,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -45,13 +59,19 @@ class AuthControllerIntegrationTest {
   UserRepository userRepository;
 
   @Autowired
-  BCryptPasswordEncoder passwordEncoder;
+  PasswordEncoder passwordEncoder;
 
   @Autowired
-  CacheManager cacheManager;
+  VerificationTokenStore verificationTokens;
 
-  @MockBean
-  EmailService emailService;
+  @Autowired
+  UserService userService;
+
+  @Autowired
+  EmailOutboxRepository emailOutboxRepository;
+
+  @Autowired
+  StringRedisTemplate redisTemplate;
 
   @BeforeAll
   static void startRedis() throws Exception {
@@ -60,12 +80,34 @@ class AuthControllerIntegrationTest {
   @BeforeEach
   void cleanDatabase() {
     userRepository.deleteAll();
+    emailOutboxRepository.deleteAll();
   }
   @AfterAll
   static void stopRedis() {
     EmbeddedRedisConfig.stopRedis();
   }
 
+  @Test
+  @DisplayName("Resending reuses the live token and folds repeated clicks into one queued email")
+  void shouldCoalesceResendsOntoTheLiveToken() throws Exception {
+    redisTemplate.delete(redisTemplate.keys("email:resend:*"));
+    CreateUserDTO dto = new CreateUserDTO("resend", "resend@gmail.com", "Password!1");
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(dto)))
+        .andExpect(status().isCreated());
+    String registrationLink = emailOutboxRepository.findAll().get(0).getLink();
+
+    for (int click = 0; click < 3; click++) {
+      mockMvc.perform(MockMvcRequestBuilders.post("/auth/resend-verification-email/Resend@gmail.com"))
+          .andExpect(status().isNoContent());
+    }
+
+    List<EmailOutboxMessage> queued = emailOutboxRepository.findAll();
+    assertEquals(2, queued.size());
+    assertTrue(queued.stream().allMatch(message -> message.getLink().equals(registrationLink)));
+  }
+
   @Test
   @DisplayName("Register user successfully")
   void shouldRegisterUserAndReturnSuccessResponse() throws Exception {
@@ -82,12 +124,15 @@ class AuthControllerIntegrationTest {
         .andReturn();
 
 
-    User user = userRepository.findByEmail(dto.email()).orElseThrow();
+    User user = userRepository.findByEmailNormalized(dto.email()).orElseThrow();
     assert user.getEmail().equals(dto.email());
     assert !user.isVerified();
     assert user.getName().equals(dto.name());
     assert passwordEncoder.matches(dto.password(), user.getPassword());
-    verify(emailService, times(1)).sendEmail(any(), any(), any());
+    List<EmailOutboxMessage> queued = emailOutboxRepository.findAll();
+    assertEquals(1, queued.size());
+    assertEquals(dto.email(), queued.get(0).getRecipient());
+    assertTrue(queued.get(0).getLink().contains("/verify-email/"));
   }
 
   @Test
@@ -113,6 +158,69 @@ class AuthControllerIntegrationTest {
         .andExpect(jsonPath("$.data[0]").value("Email already exists"));
   }
 
+  @Test
+  @DisplayName("Emails differing only by case are the same account")
+  void shouldTreatEmailsCaseInsensitively() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/register")
+            .characterEncoding("UTF-8")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CreateUserDTO("test", "Mixed.Case@Gmail.com", "Password!1"))))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/register")
+            .characterEncoding("UTF-8")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CreateUserDTO("test", "mixed.case@gmail.com", "Password!1"))))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.data[0]").value("Email already exists"));
+
+    User user = userRepository.findByEmailNormalized("mixed.case@gmail.com").orElseThrow();
+    assertEquals("Mixed.Case@Gmail.com", user.getEmail());
+    user.setVerified(true);
+    userRepository.save(user);
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/login")
+            .characterEncoding("UTF-8")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new LoginDTO(" MIXED.case@gmail.COM", "Password!1"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.accessToken").exists());
+  }
+
+  @Test
+  @DisplayName("Parallel duplicate registrations create exactly one user")
+  void shouldCreateSingleUserWhenDuplicateRegistrationsRace() throws Exception {
+    int attempts = 8;
+    String body = objectMapper.writeValueAsString(new CreateUserDTO("test", "race@gmail.com", "Password!1"));
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(attempts);
+    try {
+      List<Future<Integer>> statuses = new ArrayList<>();
+      for (int i = 0; i < attempts; i++) {
+        statuses.add(pool.submit(() -> {
+          start.await();
+          return mockMvc.perform(MockMvcRequestBuilders.post("/auth/register")
+                  .characterEncoding("UTF-8")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content(body))
+              .andReturn().getResponse().getStatus();
+        }));
+      }
+      start.countDown();
+
+      int created = 0;
+      for (Future<Integer> status : statuses) {
+        int code = status.get(30, TimeUnit.SECONDS);
+        if (code == 201) created++;
+        else assertEquals(400, code);
+      }
+      assertEquals(1, created);
+      assertEquals(1, userRepository.count());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
   @Test
   @DisplayName("Login success returns tokens")
   void shouldReturnSuccessWhenLoginIsAccepted() throws Exception {
@@ -139,6 +247,24 @@ class AuthControllerIntegrationTest {
         .andExpect(jsonPath("$.data.refreshToken").exists());
   }
 
+  @Test
+  @DisplayName("Login re-hashes a legacy BCrypt password")
+  void shouldUpgradeLegacyHashOnLogin() throws Exception {
+    String rawPassword = "Test#1";
+    User user = new User("test", "test@gmail.com", new BCryptPasswordEncoder(4).encode(rawPassword), true);
+    userRepository.save(user);
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/login")
+            .characterEncoding("UTF-8")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new LoginDTO("test@gmail.com", rawPassword))))
+        .andExpect(status().isOk());
+
+    String stored = userRepository.findByEmailNormalized("test@gmail.com").orElseThrow().getPassword();
+    assert stored.startsWith("{bcrypt}");
+    assert passwordEncoder.matches(rawPassword, stored);
+  }
+
   @Test
   @DisplayName("Login fails if email not verified")
   void shouldReturnFailsEmailNotVerifyWhenLogin() throws Exception {
@@ -206,10 +332,9 @@ class AuthControllerIntegrationTest {
   @Test
   @DisplayName("Verify email token success")
   void shouldReturnSuccessWhenEmailIsVerified() throws Exception {
-    String validToken = "valid-token-sample";
     String email = "test@gmail.com";
     userRepository.save(new User("test", email, "Password1@", false));
-    setCache(email, validToken);
+    String validToken = verificationTokens.issue(email, Duration.ofMinutes(5));
 
     mockMvc.perform(MockMvcRequestBuilders.get("/auth/verify-email/" + validToken))
         .andDo(MockMvcResultHandlers.print())
@@ -217,6 +342,27 @@ class AuthControllerIntegrationTest {
         .andExpect(jsonPath("$.success").value(true))
         .andExpect(jsonPath("$.message").value("Email verified"))
         .andExpect(jsonPath("$.data").doesNotExist());
+
+    assertTrue(userRepository.findByEmailNormalized(email).orElseThrow().isVerified());
+
+    // single use: the link does not work a second time
+    mockMvc.perform(MockMvcRequestBuilders.get("/auth/verify-email/" + validToken))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @DisplayName("Verify email token fails once the verification window closed")
+  void shouldNotVerifyWhenVerificationWindowClosed() throws Exception {
+    String email = "late@gmail.com";
+    User user = new User("late", email, "Password1@", false);
+    user.setTimeVerify(Instant.now().minusSeconds(1));
+    userRepository.save(user);
+    String token = verificationTokens.issue(email, Duration.ofMinutes(5));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/auth/verify-email/" + token))
+        .andExpect(status().isBadRequest());
+
+    assertFalse(userRepository.findByEmailNormalized(email).orElseThrow().isVerified());
   }
 
   @Test
@@ -233,8 +379,23 @@ class AuthControllerIntegrationTest {
   }
 
 
-  private void setCache(String email, String token) {
-    Cache cache = cacheManager.getCache("EmailVerificationTokens");
-    if (cache != null) cache.put(token, email);
+  @Test
+  @DisplayName("Scheduled purge removes only expired unverified users and their tokens")
+  void shouldPurgeExpiredUnverifiedUsers() {
+    User expired = new User("old", "old@gmail.com", "x", false);
+    expired.setTimeVerify(Instant.now().minusSeconds(60));
+    User pending = new User("new", "new@gmail.com", "x", false);
+    User verified = new User("done", "done@gmail.com", "x", true);
+    verified.setTimeVerify(Instant.now().minusSeconds(60));
+    userRepository.saveAll(List.of(expired, pending, verified));
+    String token = verificationTokens.issue("old@gmail.com", Duration.ofMinutes(5));
+
+    PurgeResult result = userService.deleteUserNotVerify();
+
+    assertEquals(1, result.purged());
+    assertFalse(userRepository.existsByEmailNormalized("old@gmail.com"));
+    assertTrue(userRepository.existsByEmailNormalized("new@gmail.com"));
+    assertTrue(userRepository.existsByEmailNormalized("done@gmail.com"));
+    assertNull(verificationTokens.consume(token));
   }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package dev.felipemlozx.api_auth.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import dev.felipemlozx.api_auth.config.EmbeddedRedisConfig;
+import dev.felipemlozx.api_auth.dto.CreateUserDTO;
+import dev.felipemlozx.api_auth.entity.EmailOutboxMessage;
+import dev.felipemlozx.api_auth.infra.config.PooledJavaMailSender;
+import dev.felipemlozx.api_auth.repository.EmailOutboxRepository;
+import dev.felipemlozx.api_auth.repository.UserRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "api.email.outbox.dispatcher.enabled=true",
+    "api.email.outbox.poll-interval=100",
+    "api.email.outbox.initial-backoff=100ms",
+    "api.email.outbox.max-backoff=200ms"
+})
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+// the dispatcher polls the shared in-memory database, so its context must not outlive this class
+@DirtiesContext
+class EmailOutboxIntegrationTest {
+
+  @RegisterExtension
+  static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  EmailOutboxRepository emailOutboxRepository;
+
+  @Autowired
+  JavaMailSender mailSender;
+
+  @BeforeAll
+  static void startRedis() throws Exception {
+    EmbeddedRedisConfig.startRedis();
+  }
+  @BeforeEach
+  void cleanDatabase() {
+    userRepository.deleteAll();
+    emailOutboxRepository.deleteAll();
+  }
+  @AfterAll
+  static void stopRedis() {
+    EmbeddedRedisConfig.stopRedis();
+  }
+
+  @Test
+  @DisplayName("Registrations are answered before SMTP and their emails are delivered from the outbox")
+  void shouldDeliverQueuedVerificationEmails() throws Exception {
+    for (String email : List.of("ana@gmail.com", "bob@gmail.com", "carl@gmail.com")) {
+      register(email);
+    }
+
+    assertTrue(greenMail.waitForIncomingEmail(10_000, 3));
+    MimeMessage[] received = greenMail.getReceivedMessages();
+    assertEquals(List.of("ana@gmail.com", "bob@gmail.com", "carl@gmail.com"),
+        Arrays.stream(received).map(EmailOutboxIntegrationTest::recipient).sorted().toList());
+    assertEquals("Confirm your e-mail", received[0].getSubject());
+    assertTrue(GreenMailUtil.getBody(received[0]).contains("/verify-email/"));
+    await(() -> emailOutboxRepository.count() == 0);
+    assertInstanceOf(PooledJavaMailSender.class, mailSender);
+  }
+
+  @Test
+  @DisplayName("An email that cannot be sent stays queued and is retried with backoff")
+  void shouldRetryWhileSmtpIsDown() throws Exception {
+    greenMail.stop();
+    register("down@gmail.com");
+
+    await(() -> emailOutboxRepository.findAll().stream().anyMatch(message -> message.getAttempts() >= 2));
+    EmailOutboxMessage queued = emailOutboxRepository.findAll().get(0);
+    assertEquals(EmailOutboxMessage.Status.PENDING, queued.getStatus());
+    assertTrue(queued.getLastError() != null && !queued.getLastError().isBlank());
+
+    greenMail.start();
+    assertTrue(greenMail.waitForIncomingEmail(10_000, 1));
+    assertEquals("down@gmail.com", recipient(greenMail.getReceivedMessages()[0]));
+    await(() -> emailOutboxRepository.count() == 0);
+  }
+
+  private void register(String email) throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.post("/auth/register")
+            .characterEncoding("UTF-8")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new CreateUserDTO("test", email, "Password!1"))))
+        .andExpect(status().isCreated());
+  }
+
+  private static String recipient(MimeMessage message) {
+    try {
+      return message.getAllRecipients()[0].toString();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "condition not met within 10s");
+      Thread.sleep(50);
+    }
+  }
+}
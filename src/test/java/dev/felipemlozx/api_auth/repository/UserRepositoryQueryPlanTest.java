@@ -0,0 +1,57 @@
+package dev.felipemlozx.api_auth.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the migrated schema and checks that the hot queries are index lookups, not table scans.
+ * The SQL mirrors what Hibernate generates for the corresponding UserRepository methods.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class UserRepositoryQueryPlanTest {
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  void loginAndRegistrationLookupsSeekTheEmailUniqueIndex() {
+    assertUsesIndex("select id, name, email, password, verified from tb_user where email_normalized = 'a@b.com'",
+        "UK_TB_USER_EMAIL_NORMALIZED");
+    assertUsesIndex("select email_normalized from tb_user where email_normalized in ('a@b.com', 'c@d.com')",
+        "UK_TB_USER_EMAIL_NORMALIZED");
+    assertUsesIndex("update tb_user set verified = true where email_normalized = 'a@b.com' and time_verify > now()",
+        "UK_TB_USER_EMAIL_NORMALIZED");
+  }
+
+  @Test
+  void expiredUnverifiedPurgeSeeksTheVerifiedTimeVerifyIndex() {
+    assertUsesIndex("""
+        select id, email_normalized from tb_user
+        where verified = false and time_verify < now()
+        order by time_verify
+        fetch first 500 rows only
+        """, "IDX_USER_VERIFIED_TIME_VERIFY");
+  }
+
+  @Test
+  void refreshLookupAndKeysetListingUseThePrimaryKey() {
+    assertUsesIndex("select id, name, email from tb_user where id = 1", "PRIMARY_KEY");
+    assertUsesIndex("select id, name, email, verified, time_verify from tb_user where id > 1000 order by id "
+        + "fetch first 1000 rows only", "PRIMARY_KEY");
+  }
+
+  private void assertUsesIndex(String sql, String index) {
+    String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    assertTrue(plan.toUpperCase().contains(index), () -> "expected " + index + " in plan:\n" + plan);
+    assertFalse(plan.contains("tableScan"), () -> "unexpected table scan:\n" + plan);
+  }
+}
@@ -1,31 +1,43 @@
 package dev.felipemlozx.api_auth.services;
 
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
 import dev.felipemlozx.api_auth.core.AuthCheckFailure;
 import dev.felipemlozx.api_auth.core.AuthCheckSuccess;
 import dev.felipemlozx.api_auth.core.AuthError;
 import dev.felipemlozx.api_auth.core.LoginFailure;
 import dev.felipemlozx.api_auth.core.LoginResult;
 import dev.felipemlozx.api_auth.core.LoginSuccess;
+import dev.felipemlozx.api_auth.core.Email;
+import dev.felipemlozx.api_auth.core.EmailCheckResult;
+import dev.felipemlozx.api_auth.core.EmailCheckSuccess;
+import dev.felipemlozx.api_auth.core.EmailResendThrottled;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
 import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.config.EmailResendLimiter;
 import dev.felipemlozx.api_auth.infra.security.TokenService;
-import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Spy;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,29 +52,35 @@ class AuthServiceTest {
   private UserService userService;
 
   @Mock
-  private EmailService emailService;
+  private EmailOutbox emailOutbox;
 
   @Mock
   private TokenService tokenService;
 
+  @Mock
+  private EmailResendLimiter resendLimiter;
+
   @BeforeEach
   void setUp() {
     MockitoAnnotations.openMocks(this);
   }
 
   @Test
-  void shouldRegisterUserAndSendVerificationEmail_whenDataIsValid() throws MessagingException {
+  void shouldQueueVerificationEmailWithTheUser_whenDataIsValid() {
     CreateUserDTO createUserDTO = new CreateUserDTO("name", "test@gmail.com", "Password123!");
+    User user = new User("name", "test@gmail.com", "hash", false);
     String token = UUID.randomUUID().toString();
 
-    when(userService.register(createUserDTO)).thenReturn(List.of());
-    when(userService.createEmailVerificationToken(createUserDTO.email())).thenReturn(token);
-    doNothing().when(emailService).sendEmail(anyString(), anyString(), anyString());
+    when(userService.register(eq(createUserDTO), any())).thenAnswer(invocation -> {
+      Consumer<User> inTransaction = invocation.getArgument(1);
+      inTransaction.accept(user);
+      return List.of();
+    });
+    when(userService.createEmailVerificationToken(user)).thenReturn(token);
 
     List<String> result = authService.register(createUserDTO);
 
-    verify(emailService).sendEmail(anyString(), anyString(), anyString());
-    verify(userService).createEmailVerificationToken(createUserDTO.email());
+    verify(emailOutbox).enqueueVerification("test@gmail.com", "name", authService.generateLinkToVerifyEmail(token));
     assertTrue(result.isEmpty());
   }
 
@@ -76,7 +94,7 @@ class AuthServiceTest {
   @Test
   void shouldReturnToken_whenLoginIsSuccessful() {
     LoginDTO loginDTO = new LoginDTO("test@gmail.com", "Password123!");
-    User user = new User("test", "test@gmail.com", "Password123!", true);
+    UserJwtDTO user = new UserJwtDTO(1L, "test", "test@gmail.com");
     String token = UUID.randomUUID().toString();
     String refreshToken = UUID.randomUUID().toString();
 
@@ -104,6 +122,22 @@ class AuthServiceTest {
     verify(userService).login(loginDTO);
   }
 
+  @Test
+  void shouldIssueAccessTokenFromProjection_whenRefreshTokenIsValid() {
+    DecodedJWT decoded = mock(DecodedJWT.class);
+    Claim idClaim = mock(Claim.class);
+    UserJwtDTO user = new UserJwtDTO(7L, "test", "test@gmail.com");
+    when(tokenService.validateToken("refresh")).thenReturn(decoded);
+    when(decoded.getClaim("id")).thenReturn(idClaim);
+    when(idClaim.asLong()).thenReturn(7L);
+    when(userService.findJwtUserById(7L)).thenReturn(user);
+    when(tokenService.generateToken(user)).thenReturn("access");
+
+    LoginResult result = authService.verifyToken("refresh");
+
+    assertEquals(new LoginSuccess("access", "refresh"), result);
+  }
+
   @Test
   void shouldReturnTrue_whenVerifyEmailTokenIsValid() {
     String token = "token";
@@ -119,32 +153,60 @@ class AuthServiceTest {
   }
 
   @Test
-  void shouldNotSendVerificationEmail_whenRegisterReturnsNonEmptyList() throws MessagingException {
+  void shouldNotQueueVerificationEmail_whenRegisterReturnsNonEmptyList() {
     CreateUserDTO createUserDTO = new CreateUserDTO("name", "test@gmail.com", "Password123!");
     List<String> errors = List.of("Password is invalid");
 
-    when(userService.register(createUserDTO)).thenReturn(errors);
+    when(userService.register(eq(createUserDTO), any())).thenReturn(errors);
 
     List<String> result = authService.register(createUserDTO);
 
-    verify(userService).register(createUserDTO);
-    verify(userService, never()).createEmailVerificationToken(anyString());
-    verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
+    verify(userService, never()).createEmailVerificationToken(any(User.class));
+    verify(emailOutbox, never()).enqueueVerification(anyString(), anyString(), anyString());
     assertEquals(errors, result);
   }
 
   @Test
-  void shouldNotSedEmailWhenTokenIsInValid() throws MessagingException {
-    CreateUserDTO createUserDTO = new CreateUserDTO("name", "test@gmail.com", "Password123!");
+  void shouldQueueVerificationEmail_whenResendingToUnverifiedUser() {
+    User user = new User("name", "test@gmail.com", "hash", false);
+    user.setTimeVerify(Instant.now().plusSeconds(600));
+    when(userService.findByEmail("test@gmail.com")).thenReturn(Optional.of(user));
+    when(resendLimiter.acquire("test@gmail.com"))
+        .thenReturn(new EmailResendLimiter.Decision(EmailResendLimiter.Outcome.SEND, Duration.ZERO));
+    when(userService.createEmailVerificationToken(user)).thenReturn("token");
+
+    EmailCheckResult result = authService.resendEmail("test@gmail.com");
+
+    assertEquals(new EmailCheckSuccess(Email.EMAIL_SEND), result);
+    verify(emailOutbox).enqueueVerification("test@gmail.com", "name", authService.generateLinkToVerifyEmail("token"));
+  }
 
-    when(userService.register(createUserDTO)).thenReturn(List.of());
-    when(userService.createEmailVerificationToken(createUserDTO.email())).thenReturn(null);
+  @Test
+  void shouldNotQueueAgain_whenResendIsCoalesced() {
+    User user = new User("name", "test@gmail.com", "hash", false);
+    user.setTimeVerify(Instant.now().plusSeconds(600));
+    when(userService.findByEmail("test@gmail.com")).thenReturn(Optional.of(user));
+    when(resendLimiter.acquire("test@gmail.com"))
+        .thenReturn(new EmailResendLimiter.Decision(EmailResendLimiter.Outcome.COALESCED, Duration.ofSeconds(30)));
 
-    List<String> result = authService.register(createUserDTO);
+    EmailCheckResult result = authService.resendEmail("test@gmail.com");
 
-    verify(userService).register(createUserDTO);
-    verify(userService).createEmailVerificationToken(createUserDTO.email());
-    verify(emailService, never()).sendEmail(anyString(), anyString(), anyString());
-    assertTrue(result.isEmpty());
+    assertEquals(new EmailCheckSuccess(Email.EMAIL_ALREADY_QUEUED), result);
+    verify(emailOutbox, never()).enqueueVerification(anyString(), anyString(), anyString());
+  }
+
+  @Test
+  void shouldThrottle_whenResendLimitIsReached() {
+    User user = new User("name", "test@gmail.com", "hash", false);
+    user.setTimeVerify(Instant.now().plusSeconds(600));
+    when(userService.findByEmail("test@gmail.com")).thenReturn(Optional.of(user));
+    when(resendLimiter.acquire("test@gmail.com"))
+        .thenReturn(new EmailResendLimiter.Decision(EmailResendLimiter.Outcome.RECIPIENT_LIMITED, Duration.ofMinutes(20)));
+
+    EmailCheckResult result = authService.resendEmail("test@gmail.com");
+
+    assertEquals(new EmailResendThrottled(Duration.ofMinutes(20)), result);
+    verify(emailOutbox, never()).enqueueVerification(anyString(), anyString(), anyString());
+    verify(userService, never()).createEmailVerificationToken(any(User.class));
   }
 }
@@ -1,12 +1,16 @@
 package dev.felipemlozx.api_auth.services;
 
 import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.thymeleaf.TemplateEngine;
-import org.thymeleaf.context.Context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Properties;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -14,44 +18,59 @@ import static org.junit.jupiter.api.Assertions.*;
 class EmailServiceTest {
 
   private JavaMailSender mailSender;
-  private TemplateEngine templateEngine;
   private EmailService emailService;
 
   @BeforeEach
   void setUp() {
     mailSender = mock(JavaMailSender.class);
-    templateEngine = mock(TemplateEngine.class);
-    emailService = new EmailService(mailSender, templateEngine);
+    emailService = new EmailService(mailSender, PrecompiledTemplateTest.classpathEngine());
   }
 
   @Test
-  void testSendEmailSuccess() throws MessagingException {
-    String to = "test@example.com";
-    String name = "Test User";
-    String link = "http://example.com/verify";
-    MimeMessage mimeMessage = mock(MimeMessage.class);
+  void testBuildVerificationEmail() throws Exception {
+    when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+
+    MimeMessage message = emailService.buildVerificationEmail("test@example.com", "Zoë", "http://example.com/verify?a=1&b=2");
+    message.saveChanges();
 
-    when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-    when(templateEngine.process(eq("email-template-register"), any(Context.class)))
-        .thenReturn("<html>Email Content</html>");
+    assertEquals("test@example.com", message.getAllRecipients()[0].toString());
+    assertEquals("Confirm your e-mail", message.getSubject());
+    assertTrue(message.getContentType().startsWith("text/html"));
+    assertEquals("quoted-printable", message.getEncoding());
+    String html = (String) message.getContent();
+    assertTrue(html.contains("<span>Zoë</span>"));
+    assertTrue(html.contains("href=\"http://example.com/verify?a=1&amp;b=2\""));
+    // the body is written out quoted-printable, so every line stays ASCII
+    ByteArrayOutputStream raw = new ByteArrayOutputStream();
+    message.writeTo(raw);
+    assertTrue(StandardCharsets.US_ASCII.newEncoder().canEncode(raw.toString(StandardCharsets.ISO_8859_1)));
+    verify(mailSender, never()).send(any(MimeMessage[].class));
+  }
+
+  @Test
+  void testSendUsesOneCallForTheBatch() {
+    MimeMessage first = mock(MimeMessage.class);
+    MimeMessage second = mock(MimeMessage.class);
 
-    emailService.sendEmail(to, name, link);
+    emailService.send(List.of(first, second));
 
-    verify(mailSender).createMimeMessage();
-    verify(templateEngine).process(eq("email-template-register"), any(Context.class));
-    verify(mailSender).send(mimeMessage);
+    verify(mailSender).send(first, second);
   }
 
   @Test
-  void testSendEmailThrowsMessagingException() throws Exception {
-    String to = "test@example.com";
-    String name = "Test User";
-    String link = "http://example.com/verify";
+  void testBuildVerificationEmailThrows() {
     when(mailSender.createMimeMessage()).thenThrow(new RuntimeException("Mail error"));
 
     assertThrows(RuntimeException.class, () -> {
-      emailService.sendEmail(to, name, link);
+      emailService.buildVerificationEmail("test@example.com", "Test User", "http://example.com/verify");
     });
   }
-}
 
+  @Test
+  void testBuildVerificationEmailRejectsBadAddress() {
+    when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+
+    assertThrows(MessagingException.class,
+        () -> emailService.buildVerificationEmail("not an address", "Test User", "http://example.com/verify"));
+  }
+}
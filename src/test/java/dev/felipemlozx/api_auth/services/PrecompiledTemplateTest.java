@@ -0,0 +1,63 @@
+package dev.felipemlozx.api_auth.services;
+
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrecompiledTemplateTest {
+
+  static TemplateEngine classpathEngine() {
+    ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+    resolver.setPrefix("templates/");
+    resolver.setSuffix(".html");
+    resolver.setCharacterEncoding("UTF-8");
+    SpringTemplateEngine engine = new SpringTemplateEngine();
+    engine.setTemplateResolver(resolver);
+    return engine;
+  }
+
+  @Test
+  void rendersExactlyWhatTheEngineRenders() {
+    TemplateEngine engine = classpathEngine();
+    PrecompiledTemplate template = PrecompiledTemplate.compile(engine, EmailService.VERIFICATION_TEMPLATE,
+        EmailService.VERIFICATION_VARIABLES);
+    assertTrue(template.isSplit());
+
+    for (String[] values : List.of(
+        new String[] {"Maria", "http://localhost:8080/verify-email/3f2a"},
+        new String[] {"O'Brien & <Sons> \"Ltd\" José", "http://h/verify-email/a&b\"c'd é <x>"},
+        new String[] {"", ""})) {
+      Context context = new Context();
+      context.setVariable("userName", values[0]);
+      context.setVariable("verificationLink", values[1]);
+      assertEquals(engine.process(EmailService.VERIFICATION_TEMPLATE, context), template.render(values));
+    }
+  }
+
+  @Test
+  void fallsBackToTheEngineWhenAVariableIsNotJustPrinted() {
+    SpringTemplateEngine engine = new SpringTemplateEngine();
+    engine.setTemplateResolver(new StringTemplateResolver());
+    String source = "<p th:if=\"${flag == 'yes'}\">on</p><span th:text=\"${name}\">x</span>";
+    PrecompiledTemplate template = PrecompiledTemplate.compile(engine, source, List.of("flag", "name"));
+
+    assertFalse(template.isSplit());
+    assertEquals("<p>on</p><span>Ana</span>", template.render("yes", "Ana"));
+    assertEquals("<span>Bob</span>", template.render("no", "Bob"));
+  }
+
+  @Test
+  void rejectsTheWrongNumberOfValues() {
+    PrecompiledTemplate template = PrecompiledTemplate.compile(classpathEngine(),
+        EmailService.VERIFICATION_TEMPLATE, EmailService.VERIFICATION_VARIABLES);
+
+    assertThrows(IllegalArgumentException.class, () -> template.render("only the name"));
+  }
+}
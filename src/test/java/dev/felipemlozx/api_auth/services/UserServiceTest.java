@@ -4,9 +4,20 @@ import dev.felipemlozx.api_auth.core.AuthCheckFailure;
 import dev.felipemlozx.api_auth.core.AuthCheckResult;
 import dev.felipemlozx.api_auth.core.AuthCheckSuccess;
 import dev.felipemlozx.api_auth.core.AuthError;
+import dev.felipemlozx.api_auth.core.PurgeResult;
 import dev.felipemlozx.api_auth.dto.CreateUserDTO;
 import dev.felipemlozx.api_auth.dto.LoginDTO;
+import dev.felipemlozx.api_auth.dto.UnverifiedUserDTO;
+import dev.felipemlozx.api_auth.dto.UserCredentialsDTO;
+import dev.felipemlozx.api_auth.dto.UserJwtDTO;
 import dev.felipemlozx.api_auth.entity.User;
+import dev.felipemlozx.api_auth.infra.bloom.EmailBloomFilter;
+import dev.felipemlozx.api_auth.infra.bloom.LocalBloomBitStore;
+import dev.felipemlozx.api_auth.infra.config.ReadYourWritesTracker;
+import dev.felipemlozx.api_auth.infra.config.UserSnapshotCache;
+import dev.felipemlozx.api_auth.infra.config.VerificationTokenStore;
+import dev.felipemlozx.api_auth.infra.security.PasswordHashingExecutor;
+import dev.felipemlozx.api_auth.infra.security.PasswordHashingRejectedException;
 import dev.felipemlozx.api_auth.repository.UserRepository;
 import dev.felipemlozx.api_auth.utils.CheckUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,16 +27,20 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
@@ -35,7 +50,10 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,13 +69,25 @@ class UserServiceTest {
   private PasswordEncoder passwordEncoder;
 
   @Mock
-  private CacheManager cacheManager;
+  private VerificationTokenStore verificationTokens;
+
+  @Spy
+  private PasswordHashingExecutor passwordHashingExecutor = new PasswordHashingExecutor(1, 10, Duration.ofSeconds(1));
+
+  @Spy
+  private ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(Duration.ofSeconds(5));
 
   @Mock
-  private Cache cache;
+  private UserSnapshotCache userSnapshots;
+
+  @Spy
+  private UserLookupCoalescer lookups = new UserLookupCoalescer();
+
+  @Spy
+  private EmailBloomFilter registeredEmails = new EmailBloomFilter(new LocalBloomBitStore(1024), 1024, 3, 0.01, 0.2);
 
   @Mock
-  private Cache.ValueWrapper valueWrapper;
+  private PlatformTransactionManager transactionManager;
 
   @BeforeEach
   void setUp() {
@@ -78,11 +108,28 @@ class UserServiceTest {
       List<String> result = userService.register(dto);
 
       assertTrue(result.isEmpty());
-      verify(userRepository).save(argThat(user ->
+      verify(userRepository).saveAndFlush(argThat(user ->
           user.getName().equals(dto.name()) &&
               user.getEmail().equals(dto.email()) &&
               user.getPassword().equals(encodedPassword)
       ));
+      verify(registeredEmails).put(dto.email());
+      verify(passwordHashingExecutor).submit(any());
+    }
+  }
+
+  @Test
+  void shouldNotRegisterWhenHashingQueueIsFull() {
+    CreateUserDTO dto = new CreateUserDTO("Felipe", "felipe@email.com", "Secure123");
+    doThrow(new PasswordHashingRejectedException(Duration.ofSeconds(2))).when(passwordHashingExecutor).submit(any());
+
+    try (MockedStatic<CheckUtils> utils = Mockito.mockStatic(CheckUtils.class)) {
+      utils.when(() -> CheckUtils.validatePasswordAndEmail(dto.password(), dto.email()))
+          .thenReturn(new ArrayList<>());
+
+      assertThrows(PasswordHashingRejectedException.class, () -> userService.register(dto));
+      verify(passwordEncoder, never()).encode(any());
+      verify(userRepository, never()).saveAndFlush(any());
     }
   }
 
@@ -98,24 +145,67 @@ class UserServiceTest {
       List<String> result = userService.register(dto);
 
       assertEquals(errors, result);
-      verify(userRepository, never()).save(any());
+      verify(userRepository, never()).saveAndFlush(any());
+    }
+  }
+
+  @Test
+  void shouldReturnEmailExistsWhenUniqueConstraintIsViolated() {
+    CreateUserDTO dto = new CreateUserDTO("Felipe", "felipe@email.com", "Secure123");
+
+    try (MockedStatic<CheckUtils> utils = Mockito.mockStatic(CheckUtils.class)) {
+      utils.when(() -> CheckUtils.validatePasswordAndEmail(dto.password(), dto.email()))
+          .thenReturn(new ArrayList<>());
+      when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+          "could not execute statement [Duplicate entry 'felipe@email.com' for key 'tb_user.uk_tb_user_email_normalized']"));
+
+      List<String> result = userService.register(dto);
+
+      assertEquals(List.of("Email already exists"), result);
+      verify(userRepository, never()).existsByEmailNormalized(any());
+    }
+  }
+
+  @Test
+  void shouldRethrowIntegrityViolationsOtherThanTheEmailIndex() {
+    CreateUserDTO dto = new CreateUserDTO("Felipe", "felipe@email.com", "Secure123");
+
+    try (MockedStatic<CheckUtils> utils = Mockito.mockStatic(CheckUtils.class)) {
+      utils.when(() -> CheckUtils.validatePasswordAndEmail(dto.password(), dto.email()))
+          .thenReturn(new ArrayList<>());
+      when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+          "could not execute statement [Data too long for column 'name' at row 1]"));
+
+      assertThrows(DataIntegrityViolationException.class, () -> userService.register(dto));
+      verify(registeredEmails, never()).put(any());
     }
   }
 
   @Test
   void shouldThrowsErrorWhenUserIsNotFound() {
     LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
-    when(userRepository.findByEmail(loginDTO.email())).thenReturn(Optional.empty());
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.empty());
     AuthCheckResult result = userService.login(loginDTO);
     assertInstanceOf(AuthCheckFailure.class, result);
     assertEquals(AuthError.USER_NOT_REGISTER, ((AuthCheckFailure) result).error());
   }
 
+  @Test
+  void shouldRejectUnknownEmailWithoutQueryingRepository() {
+    registeredEmails.rebuild(List.of("known@test.com").iterator());
+    LoginDTO loginDTO = new LoginDTO("unknown@test.com", "Password!32");
+
+    AuthCheckResult result = userService.login(loginDTO);
+
+    assertEquals(AuthError.USER_NOT_REGISTER, ((AuthCheckFailure) result).error());
+    verify(userRepository, never()).findCredentialsByEmail(any());
+  }
+
   @Test
   void shouldThrowsErrorWhenEmailIsNotVerify() {
     LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
-    User user = new User("test", "test@test.com","Password!32", false);
-    when(userRepository.findByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "Password!32", false);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
     AuthCheckResult result = userService.login(loginDTO);
     assertInstanceOf(AuthCheckFailure.class, result);
     assertEquals(AuthError.EMAIL_NOT_VERIFIED, ((AuthCheckFailure) result).error());
@@ -124,20 +214,61 @@ class UserServiceTest {
   @Test
   void shouldReturnSuccessWhenPasswordIsEquals() {
     LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
-    User user = new User("test", "test@test.com","Password!32", true);
-    when(userRepository.findByEmail(loginDTO.email())).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches(loginDTO.password(), user.getPassword())).thenReturn(true);
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "Password!32", true);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(loginDTO.password(), user.password())).thenReturn(true);
+    AuthCheckResult result = userService.login(loginDTO);
+    assertInstanceOf(AuthCheckSuccess.class, result);
+    assertEquals(user.toJwtUser(), ((AuthCheckSuccess) result).user());
+  }
+
+  @Test
+  void shouldNotShareALookupThatMayPredateTheUsersOwnWrite() {
+    LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "Password!32", true);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(loginDTO.password(), user.password())).thenReturn(true);
+    readYourWrites.markWritten("test@test.com");
+
     AuthCheckResult result = userService.login(loginDTO);
+
     assertInstanceOf(AuthCheckSuccess.class, result);
-    assertEquals(user, ((AuthCheckSuccess) result).user());
+    verify(lookups, never()).credentialsByEmail(any(), any());
+  }
+
+  @Test
+  void shouldRehashPasswordWhenEncodingIsOutdated() {
+    LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "$2a$10$legacy", true);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(loginDTO.password(), "$2a$10$legacy")).thenReturn(true);
+    when(passwordEncoder.upgradeEncoding("$2a$10$legacy")).thenReturn(true);
+    when(passwordEncoder.encode(loginDTO.password())).thenReturn("{bcrypt}$2a$12$upgraded");
+
+    AuthCheckResult result = userService.login(loginDTO);
+
+    assertInstanceOf(AuthCheckSuccess.class, result);
+    verify(userRepository).updatePassword(1L, "{bcrypt}$2a$12$upgraded");
+  }
+
+  @Test
+  void shouldNotRehashPasswordWhenEncodingIsCurrent() {
+    LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "{bcrypt}$2a$10$current", true);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(loginDTO.password(), user.password())).thenReturn(true);
+
+    userService.login(loginDTO);
+
+    verify(userRepository, never()).updatePassword(any(), any());
   }
 
   @Test
   void shouldReturnFailureWhenPasswordIsIncorrect() {
     LoginDTO loginDTO = new LoginDTO("test@test.com", "Password!32");
-    User user = new User("test", "test@test.com","Password32", true);
-    when(userRepository.findByEmail(loginDTO.email())).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches(loginDTO.password(), user.getPassword())).thenReturn(false);
+    UserCredentialsDTO user = new UserCredentialsDTO(1L, "test", "test@test.com", "Password32", true);
+    when(userRepository.findCredentialsByEmail(loginDTO.email())).thenReturn(Optional.of(user));
+    when(passwordEncoder.matches(loginDTO.password(), user.password())).thenReturn(false);
     AuthCheckResult result = userService.login(loginDTO);
     assertInstanceOf(AuthCheckFailure.class, result);
     assertEquals(AuthError.INVALID_CREDENTIALS, ((AuthCheckFailure) result).error());
@@ -146,185 +277,149 @@ class UserServiceTest {
   @Test
   void shouldThrowExceptionWhenUserNotFoundById() {
     long id = 1;
-    when(userRepository.findById(id)).thenReturn(Optional.empty());
+    loadSnapshotsFromRepository();
+    when(userRepository.findJwtUserById(id)).thenReturn(Optional.empty());
 
     RuntimeException ex = assertThrows(RuntimeException.class,
-        () -> userService.findById(id));
+        () -> userService.findJwtUserById(id));
     assertEquals("User not found.", ex.getMessage());
   }
 
   @Test
   void shouldReturnUserWhenUserExistsById() {
     long id = 1;
-    User user = new User("test", "test@test.com","Password!32", true);
-    when(userRepository.findById(id)).thenReturn(Optional.of(user));
+    UserJwtDTO user = new UserJwtDTO(id, "test", "test@test.com");
+    loadSnapshotsFromRepository();
+    when(userRepository.findJwtUserById(id)).thenReturn(Optional.of(user));
 
-    User result = userService.findById(id);
+    UserJwtDTO result = userService.findJwtUserById(id);
     assertNotNull(result);
     assertEquals(user, result);
-    assertEquals(user.getEmail(), result.getEmail());
+    assertEquals(user.email(), result.email());
+  }
+
+  @Test
+  void shouldServeCachedSnapshotWithoutQueryingRepository() {
+    UserJwtDTO user = new UserJwtDTO(1L, "test", "test@test.com");
+    when(userSnapshots.get(eq(1L), any())).thenReturn(Optional.of(user));
+
+    assertEquals(user, userService.findJwtUserById(1L));
+    verify(userRepository, never()).findJwtUserById(any());
+  }
+
+  @Test
+  void shouldPurgeExpiredUsersInBatches() {
+    ReflectionTestUtils.setField(userService, "purgeBatchSize", 2);
+    List<UnverifiedUserDTO> first = List.of(new UnverifiedUserDTO(1L, "a@test.com"), new UnverifiedUserDTO(2L, "b@test.com"));
+    List<UnverifiedUserDTO> second = List.of(new UnverifiedUserDTO(3L, "c@test.com"));
+    when(userRepository.findExpiredUnverified(any(), any())).thenReturn(first).thenReturn(second);
+
+    PurgeResult result = userService.deleteUserNotVerify();
+
+    assertEquals(3, result.purged());
+    assertEquals(2, result.batches());
+    verify(userRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+    verify(userRepository).deleteAllByIdInBatch(List.of(3L));
+    verify(userSnapshots).invalidateAll(List.of(1L, 2L));
+    verify(userSnapshots).invalidateAll(List.of(3L));
+    verify(userRepository, times(2)).findExpiredUnverified(any(), argThat(page -> page.getPageSize() == 2));
   }
 
   @Test
-  void shouldDeleteUserNotVerify_whenTimeIsNotValid() {
-    User user1 = new User("test", "test@test.com","Password32", false);
-    User user2 = new User("test", "test@test.com","Password32", false);
-    User user3 = new User("test", "test@test.com","Password32", false);
-    user1.setTimeVerify(Instant.now().plusSeconds(500));
-    mockUserTime(user2);
-    mockUserTime(user3);
-    when(userRepository.findByVerifiedIsFalse()).thenReturn(List.of(user1,user2,user3));
+  void shouldNotDeleteWhenNoUserIsExpired() {
+    when(userRepository.findExpiredUnverified(any(), any())).thenReturn(List.of());
+
+    PurgeResult result = userService.deleteUserNotVerify();
+
+    assertEquals(0, result.purged());
+    verify(userRepository, never()).deleteAllByIdInBatch(any());
+  }
+
+  @Test
+  void shouldRevokeVerificationTokensOfPurgedUsers() {
+    when(userRepository.findExpiredUnverified(any(), any()))
+        .thenReturn(List.of(new UnverifiedUserDTO(1L, "a@test.com"), new UnverifiedUserDTO(2L, "b@test.com")));
 
     userService.deleteUserNotVerify();
-    verify(userRepository, never()).delete(user1);
-    verify(userRepository).delete(user2);
-    verify(userRepository).delete(user3);
+
+    verify(verificationTokens).revokeAll(List.of("a@test.com", "b@test.com"));
   }
 
   @Test
   void shouldReturnTrueAndVerifyUser_whenEmailTokenIsValid() {
     String token = "fake-token123";
     String email = "teste@gmail.com";
-    User user = new User("name test", email, "Password", false);
-    user.setTimeVerify(Instant.now().plusSeconds(500));
 
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(valueWrapper);
-    when(valueWrapper.get()).thenReturn(email);
-    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-    when(userRepository.save(user)).thenReturn(user);
+    when(verificationTokens.consume(token)).thenReturn(email);
+    when(userRepository.markVerified(eq(email), any())).thenReturn(1);
 
     Boolean result = userService.verifyEmailToken(token);
     assertTrue(result);
-    assertTrue(user.isVerified());
-    verify(userRepository).save(user);
+    verify(userRepository, never()).findByEmailNormalized(any());
+    verify(userRepository, never()).save(any());
   }
 
   @Test
   void shouldReturnFalseAndNotVerifyUser_whenEmailTokenIsExpired() {
     String token = "fake-token123";
     String email = "teste@gmail.com";
-    User user = new User("name test", email, "Password", false);
-    mockUserTime(user);
 
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(valueWrapper);
-    when(valueWrapper.get()).thenReturn(email);
-    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    when(verificationTokens.consume(token)).thenReturn(email);
+    when(userRepository.markVerified(eq(email), any())).thenReturn(0);
 
     Boolean result = userService.verifyEmailToken(token);
     assertFalse(result);
-    assertFalse(user.isVerified());
   }
 
   @Test
-  void shouldReturnNull_whenCreatingEmailVerificationTokenForNonexistentUser() {
-    String email = "teste@gmail.com";
-    when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
-    String result = userService.createEmailVerificationToken(email);
-    verify(userRepository).findByEmail(email);
-    assertNull(result);
+  void shouldReturnFalse_whenTokenWasNotFoundOrAlreadyUsed() {
+    when(verificationTokens.consume("invalid-token")).thenReturn(null);
+
+    Boolean result = userService.verifyEmailToken("invalid-token");
+
+    assertFalse(result);
+    verify(userRepository, never()).markVerified(any(), any());
   }
 
   @Test
-  void shouldReturnFalse_whenEmailTokenUserNotFound() {
-    String token = "fake-token123";
+  void shouldReturnNull_whenCreatingEmailVerificationTokenForNonexistentUser() {
     String email = "teste@gmail.com";
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(valueWrapper);
-    when(valueWrapper.get()).thenReturn(email);
-    when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
-    Boolean result = userService.verifyEmailToken(token);
-    assertFalse(result);
+    when(userRepository.findByEmailNormalized(email)).thenReturn(Optional.empty());
+    String result = userService.createEmailVerificationToken(email);
+    verify(userRepository).findByEmailNormalized(email);
+    assertNull(result);
+    verify(verificationTokens, never()).issue(any(), any());
   }
 
   @Test
   void shouldCreateEmailVerificationToken_whenUserExists() {
     String email = "teste@gmail.com";
     User user = new User("name test", email, "Password", false);
-    when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+    when(userRepository.findByEmailNormalized(email)).thenReturn(Optional.of(user));
+    when(verificationTokens.issue(eq(email), any())).thenReturn("token");
 
     String result = userService.createEmailVerificationToken(email);
 
-    verify(userRepository).findByEmail(email);
-    assertNotNull(result);
+    verify(userRepository).findByEmailNormalized(email);
+    assertEquals("token", result);
   }
 
-
   @Test
-  void shouldSaveTokenInCache_whenCacheIsAvailable() {
-    String token = "test-token";
-    String email = "test@example.com";
+  void shouldIssueTokenThatExpiresWithTheVerificationWindow() {
+    User user = new User("name test", "Teste@gmail.com", "Password", false);
+    user.setTimeVerify(Instant.now().plus(Duration.ofMinutes(20)));
+    when(verificationTokens.issue(eq("teste@gmail.com"), any())).thenReturn("token");
 
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
+    assertEquals("token", userService.createEmailVerificationToken(user));
 
-    userService.saveToken(token, email);
-
-    verify(cache).put(token, email);
-  }
-
-  @Test
-  void shouldNotThrow_whenSavingTokenAndCacheIsNull() {
-    String token = "test-token";
-    String email = "test@example.com";
-
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(null);
-
-    assertDoesNotThrow(() -> userService.saveToken(token, email));
-
-    verify(cache, never()).put(any(), any());
-  }
-
-  @Test
-  void shouldSaveTokenAndRetrieveFromCache() {
-    String token = "test-token";
-    String email = "test@example.com";
-
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(valueWrapper);
-    when(valueWrapper.get()).thenReturn(email);
-    userService.saveToken(token, email);
-
-    verify(cache).put(token, email);
-  }
-
-  @Test
-  void shouldReturnEmail_whenTokenExistsInCache() {
-    String token = "my-token";
-    String email = "email@example.com";
-
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(valueWrapper);
-    when(valueWrapper.get()).thenReturn(email);
-
-    String result = userService.recoverToken(token);
-
-    assertEquals(email, result);
-  }
-
-  @Test
-  void shouldReturnNull_whenCacheIsNullOnTokenRetrieval() {
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(null);
-    String result = userService.recoverToken("any-token");
-    assertNull(result);
+    verify(verificationTokens).issue(eq("teste@gmail.com"), argThat(ttl ->
+        ttl.compareTo(Duration.ofMinutes(19)) > 0 && ttl.compareTo(Duration.ofMinutes(20)) <= 0));
   }
 
-  @Test
-  void shouldReturnNull_whenTokenNotFoundInCache() {
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get("token-inexistente")).thenReturn(null);
-
-    String result = userService.recoverToken("token-inexistente");
-    assertNull(result);
-  }
-
-  @Test
-  void shouldReturnFalse_whenRecoverTokenReturnsNull() {
-    String token = "invalid-token";
-    when(cacheManager.getCache("EmailVerificationTokens")).thenReturn(cache);
-    when(cache.get(token)).thenReturn(null);
-    Boolean result = userService.verifyEmailToken(token);
-    assertFalse(result);
+  @SuppressWarnings("unchecked")
+  private void loadSnapshotsFromRepository() {
+    when(userSnapshots.get(any(), any())).thenAnswer(invocation ->
+        invocation.getArgument(1, Function.class).apply(invocation.getArgument(0)));
   }
 
   private void mockUserTime(User user) {
@@ -0,0 +1,85 @@
+package dev.felipemlozx.api_auth.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+  @Test
+  void shouldShareOneCallBetweenConcurrentCallersOfSameKey() throws Exception {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    AtomicInteger queries = new AtomicInteger();
+    CountDownLatch leaderStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(5);
+    try {
+      Future<String> leader = pool.submit(() -> flight.execute("user", () -> {
+        queries.incrementAndGet();
+        leaderStarted.countDown();
+        await(release);
+        return "row";
+      }));
+      assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+      List<Future<String>> followers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        followers.add(pool.submit(() -> flight.execute("user", () -> {
+          queries.incrementAndGet();
+          return "other";
+        })));
+      }
+      while (flight.coalescedCount() < 4) Thread.onSpinWait();
+      release.countDown();
+
+      assertEquals("row", leader.get(5, TimeUnit.SECONDS));
+      for (Future<String> follower : followers) assertEquals("row", follower.get(5, TimeUnit.SECONDS));
+      assertEquals(1, queries.get());
+      assertEquals(1, flight.executedCount());
+      assertEquals(4, flight.coalescedCount());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotCacheCompletedCalls() {
+    SingleFlight<String, Integer> flight = new SingleFlight<>();
+    AtomicInteger queries = new AtomicInteger();
+
+    flight.execute("user", queries::incrementAndGet);
+    flight.execute("user", queries::incrementAndGet);
+
+    assertEquals(2, queries.get());
+    assertEquals(0, flight.coalescedCount());
+  }
+
+  @Test
+  void shouldPropagateLoaderFailureAndAllowRetry() {
+    SingleFlight<String, String> flight = new SingleFlight<>();
+    IllegalStateException failure = new IllegalStateException("db down");
+
+    assertSame(failure, assertThrows(IllegalStateException.class, () -> flight.execute("user", () -> { throw failure; })));
+    assertEquals("row", flight.execute("user", () -> "row"));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}